@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Сравнение пропускной способности и задержек в режимах платформенных и виртуальных потоков.
+# Требуется hey (https://github.com/rakyll/hey). Пример: CLIENTS=5000 REQUESTS=200000 scripts/virtual-threads-benchmark.sh
+set -euo pipefail
+
+CLIENTS=${CLIENTS:-5000}
+REQUESTS=${REQUESTS:-200000}
+PORT=${PORT:-8080}
+ENDPOINTS=${ENDPOINTS:-"/films/1 /films/popular?count=10 /users/1/friends"}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+RESULTS="$ROOT/target/benchmark"
+
+command -v hey >/dev/null || { echo "Не найден hey" >&2; exit 1; }
+mkdir -p "$RESULTS"
+(cd "$ROOT" && mvn -B -q -DskipTests package)
+JAR=$(ls "$ROOT"/target/filmorate-*.jar | grep -v original | head -n 1)
+
+run_mode() {
+    local mode=$1 profile=$2
+    local data_dir
+    data_dir=$(mktemp -d)
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port="$PORT" \
+        --spring.profiles.active="$profile" --spring.datasource.url="jdbc:h2:file:$data_dir/filmorate" \
+        > "$RESULTS/$mode-app.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' RETURN
+
+    until curl -sf "http://localhost:$PORT/actuator/health" >/dev/null; do sleep 1; done
+    curl -sf -H 'Content-Type: application/json' -d '{"email":"bench@example.com","login":"bench","birthday":"1990-01-01"}' \
+        "http://localhost:$PORT/users" >/dev/null
+    curl -sf -H 'Content-Type: application/json' -d '{"name":"Bench","releaseDate":"2000-01-01","duration":100,"mpa":{"id":1}}' \
+        "http://localhost:$PORT/films" >/dev/null
+
+    for endpoint in $ENDPOINTS; do
+        local name
+        name=$(echo "$endpoint" | tr '/?=&' '____')
+        hey -n 5000 -c 100 "http://localhost:$PORT$endpoint" >/dev/null
+        hey -n "$REQUESTS" -c "$CLIENTS" "http://localhost:$PORT$endpoint" > "$RESULTS/$mode$name.txt"
+        printf '%-9s %-28s %s | %s | %s\n' "$mode" "$endpoint" \
+            "$(grep 'Requests/sec' "$RESULTS/$mode$name.txt" | xargs)" \
+            "$(grep '50% in' "$RESULTS/$mode$name.txt" | xargs)" \
+            "$(grep '99% in' "$RESULTS/$mode$name.txt" | xargs)"
+    done
+    echo "Закреплений виртуальных потоков: $(grep -c 'pinned' "$RESULTS/$mode-app.log" || true)"
+}
+
+run_mode platform default
+run_mode virtual virtual
+echo "Подробные отчёты: $RESULTS"
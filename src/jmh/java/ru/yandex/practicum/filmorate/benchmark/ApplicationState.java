@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.dataset.DatasetGenerator;
+import ru.yandex.practicum.filmorate.dataset.DatasetProfile;
+import ru.yandex.practicum.filmorate.dataset.JdbcDatasetSink;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Приложение без веб-слоя поверх встроенной H2, заполненной до запуска контекста,
+// чтобы индексы в памяти строились по уже загруженным данным
+@State(Scope.Benchmark)
+public class ApplicationState {
+    private static final long SEED = 42;
+
+    @Param({"TINY"})
+    public DatasetProfile dataset;
+
+    // -p dbMetrics=true,false показывает накладные расходы таймеров хранилищ
+    @Param({"true"})
+    public boolean dbMetrics;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        String url = "jdbc:h2:mem:benchmark-" + dataset + ";DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(new JdbcTemplate(dataSource))) {
+            new DatasetGenerator(dataset, SEED).generate(sink);
+        }
+
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(WebApplicationType.NONE)
+                // Аргументы командной строки, а не properties(): те ниже по приоритету, чем application.properties
+                .run("--spring.datasource.url=" + url,
+                        "--spring.sql.init.mode=never",
+                        "--filmorate.metrics.db.enabled=" + dbMetrics,
+                        "--filmorate.popularity.drift-check-interval-ms=3600000",
+                        "--logging.level.root=WARN");
+        // Индекс популярности строится в фоне: замеры должны идти по нему, а не по запасному запросу к БД
+        context.getBean(PopularityIndex.class).warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int randomFilmId() {
+        return 1 + ThreadLocalRandom.current().nextInt(dataset.getFilms());
+    }
+
+    public int randomUserId() {
+        return 1 + ThreadLocalRandom.current().nextInt(dataset.getUsers());
+    }
+}
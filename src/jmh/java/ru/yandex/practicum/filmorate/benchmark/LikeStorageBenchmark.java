@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LikeStorageBenchmark {
+
+    private static final int SPARE_USERS = 1000;
+
+    // Лайки ставят только добавленные здесь пользователи, поэтому пары не пересекаются с набором данных
+    @State(Scope.Benchmark)
+    public static class Likes {
+        private LikeDbStorage likeStorage;
+        private JdbcTemplate jdbcTemplate;
+        private int films;
+        private int firstSpareUser;
+        private long next;
+
+        @Setup(Level.Trial)
+        public void setUp(ApplicationState state) {
+            likeStorage = state.bean(LikeDbStorage.class);
+            jdbcTemplate = state.bean(JdbcTemplate.class);
+            films = state.dataset.getFilms();
+            firstSpareUser = state.dataset.getUsers() + 1;
+            List<Object[]> users = new ArrayList<>(SPARE_USERS);
+            for (int i = 0; i < SPARE_USERS; i++) {
+                users.add(new Object[]{"spare" + i + "@example.com", "spare" + i});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (email, login, birthday) VALUES (?, ?, '1990-01-01')", users);
+        }
+
+        @TearDown(Level.Iteration)
+        public void reset() {
+            jdbcTemplate.update("DELETE FROM likes WHERE user_id >= ?", firstSpareUser);
+            likeStorage.repairLikesCounts(10_000);
+            next = 0;
+        }
+
+        synchronized long next() {
+            return next++;
+        }
+    }
+
+    @Benchmark
+    public void addLike(Likes likes) {
+        long sequence = likes.next();
+        int filmId = 1 + (int) (sequence % likes.films);
+        int userId = likes.firstSpareUser + (int) (sequence / likes.films % SPARE_USERS);
+        likes.likeStorage.addLike(filmId, userId);
+    }
+}
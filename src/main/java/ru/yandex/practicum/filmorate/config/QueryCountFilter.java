@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+// Заголовки выставляются перед первой записью тела: после неё ответ уже может быть отправлен клиенту
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+    static final String COUNT_HEADER = "X-Query-Count";
+    static final String TIME_HEADER = "X-Query-Time-Ms";
+
+    private final int repeatThreshold;
+
+    public QueryCountFilter(int repeatThreshold) {
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryStats stats = QueryStats.start()) {
+            StatsResponse wrapped = new StatsResponse(response, stats);
+            chain.doFilter(request, wrapped);
+            wrapped.writeHeaders();
+
+            log.debug("{} {}: запросов к БД {}, время в БД {} мс", request.getMethod(), request.getRequestURI(),
+                    stats.getCount(), stats.getTimeMillis());
+            Map<String, Integer> repeated = stats.getRepeated(repeatThreshold);
+            repeated.forEach((shape, times) -> log.warn("Возможная проблема N+1 в {} {}: запрос выполнен {} раз: {}",
+                    request.getMethod(), request.getRequestURI(), times, shape));
+        }
+    }
+
+    private static final class StatsResponse extends HttpServletResponseWrapper {
+        private final QueryStats stats;
+        private boolean written;
+
+        StatsResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(COUNT_HEADER, String.valueOf(stats.getCount()));
+            setHeader(TIME_HEADER, String.valueOf(stats.getTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Считает выполнения запросов и их время для QueryStats текущего потока; без открытой области только делегирует
+public class QueryCountingDataSource extends DelegatingDataSource {
+    private static final String BATCH = "<batch>";
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new CountingConnection(target));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class CountingConnection implements InvocationHandler {
+        private final Connection target;
+
+        CountingConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                default:
+                    Object result = QueryCountingDataSource.invoke(target, method, args);
+                    if (result instanceof Statement statement) {
+                        // Для prepareStatement/prepareCall текст запроса известен заранее, для createStatement — при execute
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                                new Class<?>[]{method.getReturnType()}, new CountingStatement(statement, sql));
+                    }
+                    return result;
+            }
+        }
+    }
+
+    private static final class CountingStatement implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+
+        CountingStatement(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (!name.startsWith("execute")) {
+                return QueryCountingDataSource.invoke(target, method, args);
+            }
+
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(target, method, args);
+            } finally {
+                String statement = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+                QueryStats.record(statement != null ? statement : BATCH, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Запросы к БД, выполненные текущим потоком между start() и close(). В тестах:
+// try (QueryStats stats = QueryStats.start()) { ... assertThat(stats.getCount()).isLessThanOrEqualTo(2); }
+public final class QueryStats implements AutoCloseable {
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final QueryStats previous;
+    private final Map<String, Integer> statements = new HashMap<>();
+    private int count;
+    private long nanos;
+
+    private QueryStats(QueryStats previous) {
+        this.previous = previous;
+    }
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        QueryStats stats = CURRENT.get();
+        // Запрос учитывается в текущей области и во всех внешних; вложенная область не видит запросы,
+        // выполненные внешней до её открытия
+        for (; stats != null; stats = stats.previous) {
+            stats.count++;
+            stats.nanos += elapsedNanos;
+            stats.statements.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTimeMillis() {
+        return nanos / 1_000_000;
+    }
+
+    // Формы запросов, повторённые больше threshold раз; списки IN (?, ?, ...) и числа не различаются
+    public Map<String, Integer> getRepeated(int threshold) {
+        Map<String, Integer> shapes = new HashMap<>();
+        statements.forEach((sql, times) -> shapes.merge(shape(sql), times, Integer::sum));
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue() > threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    static String shape(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = PLACEHOLDER_LIST.matcher(shape).replaceAll("?, ...");
+        return NUMBER.matcher(shape).replaceAll("N");
+    }
+}
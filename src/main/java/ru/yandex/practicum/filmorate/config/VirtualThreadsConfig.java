@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import javax.sql.DataSource;
+
+// Включается свойством spring.threads.virtual.enabled=true на Java 21+
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadsConfig {
+
+    // С виртуальными потоками число одновременных запросов не ограничено пулом Tomcat,
+    // поэтому соединения с БД раздаются через семафор размером с пул
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int maxConnections = environment.getProperty("filmorate.datasource.max-concurrent-connections",
+                        Integer.class, environment.getProperty("spring.datasource.hikari.maximum-pool-size",
+                                Integer.class, 10));
+                long acquireTimeoutMs = environment.getProperty("filmorate.datasource.acquire-timeout-ms",
+                        Long.class, 30_000L);
+                log.info("Включены виртуальные потоки: соединений с БД одновременно не более {}", maxConnections);
+                return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeoutMs);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.controller;
+
+final class ETags {
+    private ETags() {
+    }
+
+    // Сильный ETag из частей через дефис; вложенные массивы разворачиваются, null даёт пустую часть
+    static String of(Object... parts) {
+        StringBuilder tag = new StringBuilder("\"");
+        append(tag, parts);
+        return tag.append('"').toString();
+    }
+
+    private static void append(StringBuilder tag, Object[] parts) {
+        for (Object part : parts) {
+            if (part instanceof Object[] nested) {
+                append(tag, nested);
+                continue;
+            }
+            if (tag.length() > 1) {
+                tag.append('-');
+            }
+            tag.append(part != null ? part : "");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+// Полные выгрузки для аналитики: строки идут из курсора БД прямо в ответ, не накапливаясь в памяти
+@RestController
+@RequestMapping(value = "/export", produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+@Slf4j
+public class ExportController {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportController(FilmStorage filmStorage, UserStorage userStorage, LikeStorage likeStorage,
+                            FriendshipStorage friendshipStorage, ObjectMapper objectMapper) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.likeStorage = likeStorage;
+        this.friendshipStorage = friendshipStorage;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/films")
+    public ResponseEntity<StreamingResponseBody> exportFilms(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("films", acceptEncoding, writer -> filmStorage.streamAll(writer::write));
+    }
+
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("users", acceptEncoding, writer -> userStorage.streamAll(writer::write));
+    }
+
+    @GetMapping("/likes")
+    public ResponseEntity<StreamingResponseBody> exportLikes(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("likes", acceptEncoding, writer -> likeStorage.forEachLike((filmId, userId, likedAt) ->
+                writer.write(new LikeRow(filmId, userId, likedAt))));
+    }
+
+    @GetMapping("/friendships")
+    public ResponseEntity<StreamingResponseBody> exportFriendships(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("friendships", acceptEncoding, writer -> friendshipStorage.forEachFriendship(
+                (userId, friendId, status) -> writer.write(new FriendshipRow(userId, friendId, status))));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String acceptEncoding,
+                                                         Consumer<NdjsonWriter> rows) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        log.info("Получен запрос на выгрузку {}{}", name, gzip ? " со сжатием gzip" : "");
+        StreamingResponseBody body = out -> {
+            // syncFlush: периодический flush писателя отправляет клиенту уже сжатые данные
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192, true) : out;
+            int written;
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, target)) {
+                rows.accept(writer);
+                written = writer.getWritten();
+            }
+            if (target instanceof GZIPOutputStream compressed) {
+                compressed.finish();
+            }
+            log.info("Выгрузка {} завершена, записей: {}", name, written);
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NdjsonWriter.MEDIA_TYPE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name + ".ndjson").build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    record LikeRow(int filmId, int userId, Instant likedAt) {
+    }
+
+    record FriendshipRow(int userId, int friendId, FriendshipStatus status) {
+    }
+}
@@ -1,14 +1,25 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import jakarta.validation.Valid;
-import java.time.LocalDate;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -19,47 +30,104 @@ import java.util.NoSuchElementException;
 public class FilmController {
     private final FilmStorage filmStorage;
     private final FilmService filmService;
-    private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
+    private final ExistenceIndex existenceIndex;
+    private final VersionTracker versionTracker;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final ObjectMapper objectMapper;
+    private final int maxSearchCount;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @Autowired
-    public FilmController(FilmStorage filmStorage, FilmService filmService) {
+    public FilmController(FilmStorage filmStorage, FilmService filmService, ExistenceIndex existenceIndex,
+                          VersionTracker versionTracker, ReferenceDataRegistry referenceDataRegistry,
+                          ObjectMapper objectMapper, @Value("${filmorate.search.max-count:100}") int maxSearchCount) {
         this.filmStorage = filmStorage;
         this.filmService = filmService;
+        this.existenceIndex = existenceIndex;
+        this.versionTracker = versionTracker;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.objectMapper = objectMapper;
+        this.maxSearchCount = maxSearchCount;
     }
 
     @GetMapping
-    public Collection<Film> findAll() {
-        log.info("Получен запрос на список всех фильмов. Текущее количество: {}", filmStorage.findAll().size());
-        return filmStorage.findAll();
+    public ResponseEntity<Collection<Film>> findAll(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Integer after,
+                                                    WebRequest request) {
+        if (limit != null && limit <= 0) {
+            throw new ValidationException("Параметр limit должен быть положительным числом");
+        }
+        // Ответ не изменился с прошлого запроса клиента: 304 без обращения к БД
+        if (isNotModified(request, versionTracker.getFilmCatalogVersion(), "films", limit, after)) {
+            return null;
+        }
+        if (limit == null) {
+            Collection<Film> films = filmStorage.findAll();
+            log.info("Получен запрос на список всех фильмов. Текущее количество: {}", films.size());
+            return ResponseEntity.ok(films);
+        }
+
+        List<Film> page = filmStorage.findPage(after, limit);
+        log.info("Получен запрос на страницу фильмов после ID {}, размер страницы: {}", after, page.size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Получен запрос на потоковую выгрузку всех фильмов");
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                filmStorage.streamAll(writer::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.MEDIA_TYPE).body(body);
     }
 
     @GetMapping("/{id}")
-    public Film findFilmById(@PathVariable Integer id) {
+    public Film findFilmById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение фильма с ID: {}", id);
+        if (existenceIndex.filmExists(id) && isNotModified(request, versionTracker.getFilmVersion(id), "film", id)) {
+            return null;
+        }
         return filmStorage.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Фильм с id " + id + " не найден"));
     }
 
     @PostMapping
     public Film create(@Valid @RequestBody Film film) {
-        validateFilmReleaseDate(film);
-        Film createdFilm = filmStorage.create(film);
+        Film createdFilm = filmService.create(film);
         log.info("Добавлен новый фильм: {}", createdFilm);
         return createdFilm;
     }
 
     @PutMapping
     public Film update(@Valid @RequestBody Film film) {
-        if (!filmStorage.existsById(film.getId())) {
+        if (!existenceIndex.filmExists(film.getId())) {
             log.warn("Попытка обновления несуществующего фильма с ID: {}", film.getId());
             throw new NoSuchElementException("Фильм с id " + film.getId() + " не найден");
         }
-        validateFilmReleaseDate(film);
-        Film updatedFilm = filmStorage.update(film);
+        Film updatedFilm = filmService.update(film);
         log.info("Обновлен фильм: {}", updatedFilm);
         return updatedFilm;
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResult createBatch(@RequestBody List<Film> films) {
+        log.info("Получен запрос на пакетный импорт {} фильмов", films.size());
+        return filmService.createAll(films);
+    }
+
+    @PostMapping(value = "/batch", consumes = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public BatchResult createBatchNdjson(InputStream body) throws IOException {
+        List<Film> films = NdjsonReader.readAll(objectMapper, body, Film.class);
+        log.info("Получен запрос на пакетный импорт {} фильмов в формате NDJSON", films.size());
+        return filmService.createAll(films);
+    }
+
     @PutMapping("/{id}/like/{userId}")
     public void addLike(@PathVariable Integer id, @PathVariable Integer userId) {
         filmService.addLike(id, userId);
@@ -72,14 +140,35 @@ public class FilmController {
 
     @GetMapping("/popular")
     public List<Film> getPopularFilms(
-            @RequestParam(defaultValue = "10") Integer count) {
-        return filmService.getPopularFilms(count);
+            @RequestParam(defaultValue = "10") Integer count,
+            @RequestParam(required = false) Integer genreId,
+            @RequestParam(required = false) Integer year) {
+        return filmService.getPopularFilms(count, genreId, year);
     }
 
-    private void validateFilmReleaseDate(Film film) {
-        if (film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
-            log.warn("Попытка добавить фильм с некорректной датой релиза: {}", film.getReleaseDate());
-            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam(required = false) String q,
+                                  @RequestParam(defaultValue = "20") Integer count) {
+        if (count <= 0 || count > maxSearchCount) {
+            throw new ValidationException("Параметр count должен быть от 1 до " + maxSearchCount);
         }
+        return filmService.searchFilms(q, count);
+    }
+
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") Integer count) {
+        return filmService.getTrendingFilms(window, count);
+    }
+
+    // Фильм содержит названия жанров и рейтинга, поэтому их версии тоже входят в ETag
+    private boolean isNotModified(WebRequest request, VersionTracker.Version version, Object... key) {
+        ReferenceDataRegistry.Version genres = referenceDataRegistry.getGenresVersion();
+        ReferenceDataRegistry.Version ratings = referenceDataRegistry.getRatingsVersion();
+        String etag = ETags.of(key, Long.toHexString(versionTracker.getStartedAt()), version.value(),
+                genres.value(), ratings.value());
+        long lastModified = Math.max(version.modifiedAt(), Math.max(genres.modifiedAt(), ratings.modifiedAt()));
+        return request.checkNotModified(etag, lastModified);
     }
-}
\ No newline at end of file
+}
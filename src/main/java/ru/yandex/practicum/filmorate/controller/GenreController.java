@@ -3,8 +3,11 @@ package ru.yandex.practicum.filmorate.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -13,22 +16,38 @@ import java.util.NoSuchElementException;
 @Slf4j
 public class GenreController {
     private final GenreService genreService;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final VersionTracker versionTracker;
 
     @Autowired
-    public GenreController(GenreService genreService) {
+    public GenreController(GenreService genreService, ReferenceDataRegistry referenceDataRegistry,
+                           VersionTracker versionTracker) {
         this.genreService = genreService;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.versionTracker = versionTracker;
     }
 
     @GetMapping
-    public List<Genre> getAllGenres() {
+    public List<Genre> getAllGenres(WebRequest request) {
         log.info("Получен запрос на список всех жанров");
+        if (isNotModified(request, "genres")) {
+            return null;
+        }
         return genreService.getAllGenres();
     }
 
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable Integer id) {
+    public Genre getGenreById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение жанра с ID: {}", id);
-        return genreService.getGenreById(id)
+        Genre genre = genreService.getGenreById(id)
                 .orElseThrow(() -> new NoSuchElementException("Жанр с id " + id + " не найден"));
+        return isNotModified(request, "genre", id) ? null : genre;
     }
-}
\ No newline at end of file
+
+    // Версии справочника после перезапуска снова начинаются с 1, поэтому момент запуска входит в ETag
+    private boolean isNotModified(WebRequest request, Object... key) {
+        ReferenceDataRegistry.Version version = referenceDataRegistry.getGenresVersion();
+        String etag = ETags.of(key, Long.toHexString(versionTracker.getStartedAt()), version.value());
+        return request.checkNotModified(etag, version.modifiedAt());
+    }
+}
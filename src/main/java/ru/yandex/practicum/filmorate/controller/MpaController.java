@@ -3,8 +3,11 @@ package ru.yandex.practicum.filmorate.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
 import ru.yandex.practicum.filmorate.model.AgeRating;
 import ru.yandex.practicum.filmorate.service.MpaService;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -13,22 +16,37 @@ import java.util.NoSuchElementException;
 @Slf4j
 public class MpaController {
     private final MpaService mpaService;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final VersionTracker versionTracker;
 
     @Autowired
-    public MpaController(MpaService mpaService) {
+    public MpaController(MpaService mpaService, ReferenceDataRegistry referenceDataRegistry,
+                         VersionTracker versionTracker) {
         this.mpaService = mpaService;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.versionTracker = versionTracker;
     }
 
     @GetMapping
-    public List<AgeRating> getAllMpa() {
+    public List<AgeRating> getAllMpa(WebRequest request) {
         log.info("Получен запрос на список всех рейтингов MPA");
+        if (isNotModified(request, "mpa")) {
+            return null;
+        }
         return mpaService.getAllMpa();
     }
 
     @GetMapping("/{id}")
-    public AgeRating getMpaById(@PathVariable Integer id) {
+    public AgeRating getMpaById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение рейтинга MPA с ID: {}", id);
-        return mpaService.getMpaById(id)
+        AgeRating rating = mpaService.getMpaById(id)
                 .orElseThrow(() -> new NoSuchElementException("Рейтинг MPA с id " + id + " не найден"));
+        return isNotModified(request, "mpa", id) ? null : rating;
     }
-}
\ No newline at end of file
+
+    private boolean isNotModified(WebRequest request, Object... key) {
+        ReferenceDataRegistry.Version version = referenceDataRegistry.getRatingsVersion();
+        String etag = ETags.of(key, Long.toHexString(versionTracker.getStartedAt()), version.value());
+        return request.checkNotModified(etag, version.modifiedAt());
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+final class NdjsonReader {
+
+    private NdjsonReader() {
+    }
+
+    // Строки, которые не удалось разобрать, возвращаются как null, чтобы сохранить нумерацию записей
+    static <T> List<T> readAll(ObjectMapper objectMapper, InputStream in, Class<T> type) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        List<T> values = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                values.add(reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                values.add(null);
+            }
+        }
+        return values;
+    }
+}
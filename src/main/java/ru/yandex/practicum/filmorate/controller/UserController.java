@@ -1,13 +1,25 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -18,17 +30,57 @@ import java.util.NoSuchElementException;
 public class UserController {
     private final UserStorage userStorage;
     private final UserService userService;
+    private final ExistenceIndex existenceIndex;
+    private final RecommendationService recommendationService;
+    private final ObjectMapper objectMapper;
+    private final int maxRecommendationCount;
+    private final int maxSuggestionCount;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     @Autowired
-    public UserController(UserStorage userStorage, UserService userService) {
+    public UserController(UserStorage userStorage, UserService userService, ExistenceIndex existenceIndex,
+                          RecommendationService recommendationService, ObjectMapper objectMapper,
+                          @Value("${filmorate.recommendations.max-count:100}") int maxRecommendationCount,
+                          @Value("${filmorate.friends.suggestions.max-count:100}") int maxSuggestionCount) {
         this.userStorage = userStorage;
         this.userService = userService;
+        this.existenceIndex = existenceIndex;
+        this.recommendationService = recommendationService;
+        this.objectMapper = objectMapper;
+        this.maxRecommendationCount = maxRecommendationCount;
+        this.maxSuggestionCount = maxSuggestionCount;
     }
 
     @GetMapping
-    public Collection<User> findAll() {
-        log.info("Получен запрос на список всех пользователей. Текущее количество: {}", userStorage.findAll().size());
-        return userStorage.findAll();
+    public ResponseEntity<Collection<User>> findAll(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) Integer after) {
+        if (limit == null) {
+            Collection<User> users = userStorage.findAll();
+            log.info("Получен запрос на список всех пользователей. Текущее количество: {}", users.size());
+            return ResponseEntity.ok(users);
+        }
+        if (limit <= 0) {
+            throw new ValidationException("Параметр limit должен быть положительным числом");
+        }
+
+        List<User> page = userStorage.findPage(after, limit);
+        log.info("Получен запрос на страницу пользователей после ID {}, размер страницы: {}", after, page.size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping(produces = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        log.info("Получен запрос на потоковую выгрузку всех пользователей");
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                userStorage.streamAll(writer::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(NdjsonWriter.MEDIA_TYPE).body(body);
     }
 
     @GetMapping("/{id}")
@@ -40,24 +92,35 @@ public class UserController {
 
     @PostMapping
     public User create(@Valid @RequestBody User user) {
-        setUserNameFromLoginIfEmpty(user);
-        User createdUser = userStorage.create(user);
+        User createdUser = userService.create(user);
         log.info("Добавлен новый пользователь: {}", createdUser);
         return createdUser;
     }
 
     @PutMapping
     public User update(@Valid @RequestBody User user) {
-        if (!userStorage.existsById(user.getId())) {
+        if (!existenceIndex.userExists(user.getId())) {
             log.warn("Попытка обновления несуществующего пользователя с ID: {}", user.getId());
             throw new NoSuchElementException("Пользователь с id " + user.getId() + " не найден");
         }
-        setUserNameFromLoginIfEmpty(user);
-        User updatedUser = userStorage.update(user);
+        User updatedUser = userService.update(user);
         log.info("Обновлен пользователь: {}", updatedUser);
         return updatedUser;
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BatchResult createBatch(@RequestBody List<User> users) {
+        log.info("Получен запрос на пакетный импорт {} пользователей", users.size());
+        return userService.createAll(users);
+    }
+
+    @PostMapping(value = "/batch", consumes = NdjsonWriter.MEDIA_TYPE_VALUE)
+    public BatchResult createBatchNdjson(InputStream body) throws IOException {
+        List<User> users = NdjsonReader.readAll(objectMapper, body, User.class);
+        log.info("Получен запрос на пакетный импорт {} пользователей в формате NDJSON", users.size());
+        return userService.createAll(users);
+    }
+
     @PutMapping("/{id}/friends/{friendId}")
     public void addFriend(@PathVariable Integer id, @PathVariable Integer friendId) {
         userService.addFriend(id, friendId);
@@ -98,15 +161,26 @@ public class UserController {
         return userService.getCommonFriends(id, otherId);
     }
 
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable Integer id,
+                                           @RequestParam(defaultValue = "10") Integer count) {
+        if (count <= 0 || count > maxSuggestionCount) {
+            throw new ValidationException("Параметр count должен быть от 1 до " + maxSuggestionCount);
+        }
+        return userService.getFriendSuggestions(id, count);
+    }
+
     @GetMapping("/{id}/friends/status/{friendId}")
     public FriendshipStatus getFriendshipStatus(@PathVariable Integer id, @PathVariable Integer friendId) {
         return userService.getFriendshipStatus(id, friendId);
     }
 
-    private void setUserNameFromLoginIfEmpty(User user) {
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
-            log.debug("Для пользователя {} установлено имя из логина", user.getLogin());
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable Integer id,
+                                         @RequestParam(defaultValue = "10") Integer count) {
+        if (count <= 0 || count > maxRecommendationCount) {
+            throw new ValidationException("Параметр count должен быть от 1 до " + maxRecommendationCount);
         }
+        return recommendationService.getRecommendations(id, count);
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentIdSet {
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile AtomicLongArray words = new AtomicLongArray(16);
+
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int wordIndex = id >>> 6;
+        return wordIndex < current.length() && (current.get(wordIndex) & (1L << id)) != 0;
+    }
+
+    public void add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Идентификатор не может быть отрицательным: " + id);
+        }
+        int wordIndex = id >>> 6;
+        growLock.lock();
+        try {
+            AtomicLongArray current = words;
+            if (wordIndex >= current.length()) {
+                AtomicLongArray grown = new AtomicLongArray(Math.max(wordIndex + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                words = grown;
+                current = grown;
+            }
+            current.set(wordIndex, current.get(wordIndex) | (1L << id));
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    public void clear() {
+        growLock.lock();
+        try {
+            words = new AtomicLongArray(16);
+        } finally {
+            growLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import java.util.function.IntPredicate;
+
+@Component
+@Slf4j
+public class ExistenceIndex {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final Counter filmHits;
+    private final Counter filmMisses;
+    private final Counter userHits;
+    private final Counter userMisses;
+    private volatile ConcurrentIdSet films = new ConcurrentIdSet();
+    private volatile ConcurrentIdSet users = new ConcurrentIdSet();
+
+    @Autowired
+    public ExistenceIndex(FilmStorage filmStorage, UserStorage userStorage, MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.filmHits = lookupCounter(meterRegistry, "film", "hit");
+        this.filmMisses = lookupCounter(meterRegistry, "film", "miss");
+        this.userHits = lookupCounter(meterRegistry, "user", "hit");
+        this.userMisses = lookupCounter(meterRegistry, "user", "miss");
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        ConcurrentIdSet loadedFilms = new ConcurrentIdSet();
+        ConcurrentIdSet loadedUsers = new ConcurrentIdSet();
+        filmStorage.forEachId(loadedFilms::add);
+        userStorage.forEachId(loadedUsers::add);
+        films = loadedFilms;
+        users = loadedUsers;
+        log.info("Индекс существования построен");
+    }
+
+    public boolean filmExists(Integer filmId) {
+        return exists(films, filmId, filmHits, filmMisses, filmStorage::existsById);
+    }
+
+    public boolean userExists(Integer userId) {
+        return exists(users, userId, userHits, userMisses, userStorage::existsById);
+    }
+
+    public void onFilmCreated(int filmId) {
+        films.add(filmId);
+    }
+
+    public void onUserCreated(int userId) {
+        users.add(userId);
+    }
+
+    // Фильмы и пользователи не удаляются, поэтому найденный в БД id можно сразу добавить в индекс
+    private static boolean exists(ConcurrentIdSet ids, Integer id, Counter hits, Counter misses, IntPredicate database) {
+        if (id == null) {
+            return false;
+        }
+        if (ids.contains(id)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        if (id > 0 && database.test(id)) {
+            ids.add(id);
+            return true;
+        }
+        return false;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String entity, String result) {
+        return Counter.builder("filmorate.existence.lookups")
+                .description("Проверки существования фильмов и пользователей через индекс в памяти")
+                .tag("entity", entity)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
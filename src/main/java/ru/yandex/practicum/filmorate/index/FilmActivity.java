@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+// Кольцевые буферы лайков фильма: поминутно за последний час и почасово за последнюю неделю
+final class FilmActivity {
+    static final int MINUTE_SLOTS = 60;
+    static final int HOUR_SLOTS = 7 * 24;
+    private static final int DAY_HOURS = 24;
+
+    private final long[] minuteStamps = new long[MINUTE_SLOTS];
+    private final int[] minuteCounts = new int[MINUTE_SLOTS];
+    private final long[] hourStamps = new long[HOUR_SLOTS];
+    private final int[] hourCounts = new int[HOUR_SLOTS];
+
+    FilmActivity() {
+        Arrays.fill(minuteStamps, Long.MIN_VALUE);
+        Arrays.fill(hourStamps, Long.MIN_VALUE);
+    }
+
+    synchronized void add(long minute, long nowMinute, int delta) {
+        if (minute > nowMinute - MINUTE_SLOTS) {
+            addToSlot(minuteStamps, minuteCounts, minute, delta);
+        }
+        long hour = minute / 60;
+        if (hour > nowMinute / 60 - HOUR_SLOTS) {
+            addToSlot(hourStamps, hourCounts, hour, delta);
+        }
+    }
+
+    synchronized long score(TrendingWindow window, long nowMinute) {
+        long nowHour = nowMinute / 60;
+        long sum = switch (window) {
+            case HOUR -> sum(minuteStamps, minuteCounts, nowMinute - MINUTE_SLOTS);
+            case DAY -> sum(hourStamps, hourCounts, nowHour - DAY_HOURS);
+            case WEEK -> sum(hourStamps, hourCounts, nowHour - HOUR_SLOTS);
+        };
+        return Math.max(sum, 0);
+    }
+
+    private static void addToSlot(long[] stamps, int[] counts, long stamp, int delta) {
+        int slot = (int) Math.floorMod(stamp, (long) stamps.length);
+        if (stamps[slot] > stamp) {
+            return;
+        }
+        if (stamps[slot] < stamp) {
+            stamps[slot] = stamp;
+            counts[slot] = 0;
+        }
+        counts[slot] += delta;
+    }
+
+    private static long sum(long[] stamps, int[] counts, long afterStamp) {
+        long sum = 0;
+        for (int i = 0; i < stamps.length; i++) {
+            if (stamps[i] > afterStamp) {
+                sum += counts[i];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.index;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.util.Arrays;
+
+final class FriendEdges {
+    static final FriendEdges EMPTY = new FriendEdges(IntArrays.EMPTY, new byte[0]);
+    private static final FriendshipStatus[] STATUSES = FriendshipStatus.values();
+
+    private final int[] ids;
+    private final byte[] statuses;
+
+    private FriendEdges(int[] ids, byte[] statuses) {
+        this.ids = ids;
+        this.statuses = statuses;
+    }
+
+    // Рёбра упакованы в long: старшие биты — id пользователя, младший байт — ordinal статуса
+    static FriendEdges fromPacked(long[] packed, int size) {
+        Arrays.sort(packed, 0, size);
+        int[] ids = new int[size];
+        byte[] statuses = new byte[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) (packed[i] >>> 8);
+            statuses[i] = (byte) packed[i];
+        }
+        return new FriendEdges(ids, statuses);
+    }
+
+    static long pack(int id, FriendshipStatus status) {
+        return ((long) id << 8) | status.ordinal();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    int[] ids() {
+        return ids;
+    }
+
+    int[] ids(FriendshipStatus status) {
+        int[] result = new int[ids.length];
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (statuses[i] == status.ordinal()) {
+                result[size++] = ids[i];
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    FriendshipStatus status(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        return position >= 0 ? STATUSES[statuses[position]] : null;
+    }
+
+    FriendEdges with(int id, FriendshipStatus status) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            if (statuses[position] == status.ordinal()) {
+                return this;
+            }
+            byte[] updated = statuses.clone();
+            updated[position] = (byte) status.ordinal();
+            return new FriendEdges(ids, updated);
+        }
+        int insertAt = -position - 1;
+        int[] newIds = IntArrays.insertSorted(ids, id);
+        byte[] newStatuses = new byte[statuses.length + 1];
+        System.arraycopy(statuses, 0, newStatuses, 0, insertAt);
+        newStatuses[insertAt] = (byte) status.ordinal();
+        System.arraycopy(statuses, insertAt, newStatuses, insertAt + 1, statuses.length - insertAt);
+        return new FriendEdges(newIds, newStatuses);
+    }
+
+    FriendEdges without(int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return this;
+        }
+        int[] newIds = IntArrays.removeSorted(ids, id);
+        byte[] newStatuses = new byte[statuses.length - 1];
+        System.arraycopy(statuses, 0, newStatuses, 0, position);
+        System.arraycopy(statuses, position + 1, newStatuses, position, statuses.length - position - 1);
+        return new FriendEdges(newIds, newStatuses);
+    }
+}
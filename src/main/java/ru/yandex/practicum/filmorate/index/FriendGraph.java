@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class FriendGraph {
+    private final FriendshipStorage friendshipStorage;
+    private volatile Map<Integer, FriendEdges> outgoing = new ConcurrentHashMap<>();
+    private volatile Map<Integer, FriendEdges> incoming = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FriendGraph(FriendshipStorage friendshipStorage) {
+        this.friendshipStorage = friendshipStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, PackedEdges> outgoingEdges = new HashMap<>();
+        Map<Integer, PackedEdges> incomingEdges = new HashMap<>();
+        long[] count = new long[1];
+        friendshipStorage.forEachFriendship((userId, friendId, status) -> {
+            outgoingEdges.computeIfAbsent(userId, id -> new PackedEdges()).add(FriendEdges.pack(friendId, status));
+            incomingEdges.computeIfAbsent(friendId, id -> new PackedEdges()).add(FriendEdges.pack(userId, status));
+            count[0]++;
+        });
+
+        outgoing = toEdges(outgoingEdges);
+        incoming = toEdges(incomingEdges);
+        log.info("Граф дружбы построен: пользователей {}, связей {}", outgoing.size(), count[0]);
+    }
+
+    public void addEdge(int userId, int friendId, FriendshipStatus status) {
+        outgoing.compute(userId, (id, edges) -> orEmpty(edges).with(friendId, status));
+        incoming.compute(friendId, (id, edges) -> orEmpty(edges).with(userId, status));
+    }
+
+    public void updateStatus(int userId, int friendId, FriendshipStatus status) {
+        if (getStatus(userId, friendId) != null) {
+            addEdge(userId, friendId, status);
+        }
+    }
+
+    public void removeEdge(int userId, int friendId) {
+        outgoing.computeIfPresent(userId, (id, edges) -> emptyToNull(edges.without(friendId)));
+        incoming.computeIfPresent(friendId, (id, edges) -> emptyToNull(edges.without(userId)));
+    }
+
+    public FriendshipStatus getStatus(int userId, int friendId) {
+        return outgoing.getOrDefault(userId, FriendEdges.EMPTY).status(friendId);
+    }
+
+    public int[] getFriendIds(int userId) {
+        return outgoing.getOrDefault(userId, FriendEdges.EMPTY).ids();
+    }
+
+    public int[] getFriendIds(int userId, FriendshipStatus status) {
+        return outgoing.getOrDefault(userId, FriendEdges.EMPTY).ids(status);
+    }
+
+    public int[] getFollowerIds(int userId) {
+        return incoming.getOrDefault(userId, FriendEdges.EMPTY).ids();
+    }
+
+    public int[] getIncomingRequestIds(int userId) {
+        return incoming.getOrDefault(userId, FriendEdges.EMPTY).ids(FriendshipStatus.PENDING);
+    }
+
+    public int[] getCommonFriendIds(int userId, int otherUserId) {
+        return IntArrays.intersectSorted(getFriendIds(userId), getFriendIds(otherUserId));
+    }
+
+    private static Map<Integer, FriendEdges> toEdges(Map<Integer, PackedEdges> packed) {
+        Map<Integer, FriendEdges> edges = new ConcurrentHashMap<>(packed.size() * 2);
+        packed.forEach((userId, buffer) -> edges.put(userId, FriendEdges.fromPacked(buffer.values, buffer.size)));
+        return edges;
+    }
+
+    private static FriendEdges orEmpty(FriendEdges edges) {
+        return edges != null ? edges : FriendEdges.EMPTY;
+    }
+
+    private static FriendEdges emptyToNull(FriendEdges edges) {
+        return edges.size() == 0 ? null : edges;
+    }
+
+    private static final class PackedEdges {
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class FriendSuggestions {
+    private final FriendGraph friendGraph;
+    private final int maxFanOut;
+    private final int cachedCount;
+    private final int maxCachedUsers;
+    private final Map<Integer, int[]> cache = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public FriendSuggestions(FriendGraph friendGraph,
+                             @Value("${filmorate.friends.suggestions.max-fan-out:1000}") int maxFanOut,
+                             @Value("${filmorate.friends.suggestions.cached-count:50}") int cachedCount,
+                             @Value("${filmorate.friends.suggestions.cache-size:100000}") int maxCachedUsers) {
+        this.friendGraph = friendGraph;
+        this.maxFanOut = maxFanOut;
+        this.cachedCount = cachedCount;
+        this.maxCachedUsers = maxCachedUsers;
+    }
+
+    public int[] suggest(int userId, int count) {
+        if (count <= 0) {
+            return IntArrays.EMPTY;
+        }
+        int[] cached = cache.get(userId);
+        if (cached != null && (count <= cached.length || cached.length < cachedCount)) {
+            return count < cached.length ? Arrays.copyOf(cached, count) : cached;
+        }
+
+        long version = invalidations.get();
+        int limit = Math.max(count, cachedCount);
+        int[] suggestions = compute(userId, limit);
+        // Результат, посчитанный во время изменения графа, может быть устаревшим — такой не кешируем
+        if (invalidations.get() == version && limit == cachedCount) {
+            if (cache.size() >= maxCachedUsers) {
+                cache.clear();
+            }
+            cache.put(userId, suggestions);
+        }
+        return count < suggestions.length ? Arrays.copyOf(suggestions, count) : suggestions;
+    }
+
+    // Изменение исходящих связей пользователя влияет на его подборку и на подборки всех, у кого он в друзьях
+    public void onEdgesChanged(int userId) {
+        invalidations.incrementAndGet();
+        cache.remove(userId);
+        for (int followerId : friendGraph.getFollowerIds(userId)) {
+            cache.remove(followerId);
+        }
+    }
+
+    private int[] compute(int userId, int limit) {
+        int[] friends = friendGraph.getFriendIds(userId);
+        if (friends.length == 0) {
+            return IntArrays.EMPTY;
+        }
+        IntCounter mutualFriends = new IntCounter(Math.min(friends.length, maxFanOut) * 8);
+        int friendStep = Math.max(1, friends.length / maxFanOut);
+        for (int i = 0; i < friends.length; i += friendStep) {
+            int[] candidates = friendGraph.getFriendIds(friends[i]);
+            int candidateStep = Math.max(1, candidates.length / maxFanOut);
+            for (int j = 0; j < candidates.length; j += candidateStep) {
+                int candidateId = candidates[j];
+                if (candidateId != userId && !IntArrays.containsSorted(friends, candidateId)) {
+                    mutualFriends.add(candidateId, 1);
+                }
+            }
+        }
+        return mutualFriends.top(limit);
+    }
+}
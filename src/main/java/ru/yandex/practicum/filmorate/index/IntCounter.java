@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+// Счётчик int -> int с открытой адресацией, без упаковки в Integer
+public final class IntCounter {
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+
+    // Ёмкость — степень двойки не меньше 2 * expectedSize; большие значения ограничены, чтобы расчёт не переполнился
+    public IntCounter(int expectedSize) {
+        int expected = Math.min(Math.max(expectedSize, 8), MAX_CAPACITY / 4);
+        int capacity = Integer.highestOneBit(expected * 2 - 1) << 1;
+        keys = new int[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    public void add(int key, int delta) {
+        int slot = slot(keys, key);
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(keys, key);
+            }
+        }
+        counts[slot] += delta;
+    }
+
+    public int get(int key) {
+        int slot = slot(keys, key);
+        return keys[slot] == FREE ? 0 : counts[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    public int[] top(int k) {
+        TopK top = new TopK(k);
+        forEach((key, count) -> {
+            if (count > 0) {
+                top.offer(key, count);
+            }
+        });
+        return top.ids();
+    }
+
+    private void grow() {
+        if (keys.length >= MAX_CAPACITY) {
+            throw new IllegalStateException("Счётчик превысил максимальную ёмкость: " + MAX_CAPACITY);
+        }
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int count);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class Leaderboard {
+    private static final Comparator<Entry> RANKING_ORDER = Comparator
+            .<Entry>comparingLong(Entry::score).reversed()
+            .thenComparingInt(Entry::id);
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+
+    public void track(int id) {
+        entries.computeIfAbsent(id, key -> {
+            Entry entry = new Entry(key, 0);
+            ranking.add(entry);
+            return entry;
+        });
+    }
+
+    public void set(int id, long score) {
+        entries.compute(id, (key, old) -> replace(old, new Entry(key, score)));
+    }
+
+    public void add(int id, long delta) {
+        entries.compute(id, (key, old) -> replace(old, new Entry(key, (old == null ? 0 : old.score()) + delta)));
+    }
+
+    public void remove(int id) {
+        entries.computeIfPresent(id, (key, old) -> {
+            ranking.remove(old);
+            return null;
+        });
+    }
+
+    public long score(int id) {
+        Entry entry = entries.get(id);
+        return entry != null ? entry.score() : 0;
+    }
+
+    public boolean contains(int id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int[] top(int count) {
+        if (count <= 0) {
+            return new int[0];
+        }
+        int[] ids = new int[Math.min(count, entries.size())];
+        int size = 0;
+        // Во время перемещения фильм на мгновение присутствует в рейтинге дважды
+        Set<Integer> seen = new HashSet<>(ids.length * 2);
+        Iterator<Entry> iterator = ranking.iterator();
+        while (size < ids.length && iterator.hasNext()) {
+            int id = iterator.next().id();
+            if (seen.add(id)) {
+                ids[size++] = id;
+            }
+        }
+        return size == ids.length ? ids : Arrays.copyOf(ids, size);
+    }
+
+    public Map<Integer, Long> snapshot() {
+        Map<Integer, Long> scores = new HashMap<>(entries.size() * 2);
+        entries.values().forEach(entry -> scores.put(entry.id(), entry.score()));
+        return scores;
+    }
+
+    // Новая запись добавляется до удаления старой, чтобы обход рейтинга в top() не пропустил фильм
+    private Entry replace(Entry old, Entry updated) {
+        if (updated.equals(old)) {
+            return old;
+        }
+        ranking.add(updated);
+        if (old != null) {
+            ranking.remove(old);
+        }
+        return updated;
+    }
+
+    private record Entry(int id, long score) {
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Разреженная матрица лайков пользователь x фильм: строки хранятся отсортированными массивами id в обе стороны
+@Component
+@Slf4j
+public class LikeMatrix {
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    private final LikeStorage likeStorage;
+    private volatile Map<Integer, int[]> filmsByUser = new ConcurrentHashMap<>();
+    private volatile Map<Integer, int[]> usersByFilm = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LikeMatrix(LikeStorage likeStorage) {
+        this.likeStorage = likeStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        long[][] buffer = {new long[1024]};
+        int[] size = new int[1];
+        likeStorage.forEachLike((filmId, userId, likedAt) -> {
+            if (size[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], size[0] * 2);
+            }
+            buffer[0][size[0]++] = pack(userId, filmId);
+        });
+
+        long[] byUser = Arrays.copyOf(buffer[0], size[0]);
+        long[] byFilm = new long[byUser.length];
+        Arrays.parallelSetAll(byFilm, i -> pack(column(byUser[i]), row(byUser[i])));
+        Arrays.parallelSort(byUser);
+        Arrays.parallelSort(byFilm);
+
+        Map<Integer, int[]> users = new ConcurrentHashMap<>();
+        Map<Integer, int[]> films = new ConcurrentHashMap<>();
+        ForkJoinPool.commonPool().invoke(new RowBuilder(byUser, 0, byUser.length, users));
+        ForkJoinPool.commonPool().invoke(new RowBuilder(byFilm, 0, byFilm.length, films));
+        filmsByUser = users;
+        usersByFilm = films;
+        log.info("Матрица лайков построена: пользователей {}, фильмов {}, лайков {}",
+                users.size(), films.size(), byUser.length);
+    }
+
+    public void onLikeAdded(int filmId, int userId) {
+        filmsByUser.compute(userId, (id, row) -> IntArrays.insertSorted(row != null ? row : IntArrays.EMPTY, filmId));
+        usersByFilm.compute(filmId, (id, row) -> IntArrays.insertSorted(row != null ? row : IntArrays.EMPTY, userId));
+    }
+
+    public void onLikeRemoved(int filmId, int userId) {
+        filmsByUser.computeIfPresent(userId, (id, row) -> emptyToNull(IntArrays.removeSorted(row, filmId)));
+        usersByFilm.computeIfPresent(filmId, (id, row) -> emptyToNull(IntArrays.removeSorted(row, userId)));
+    }
+
+    public int[] filmsLikedBy(int userId) {
+        return filmsByUser.getOrDefault(userId, IntArrays.EMPTY);
+    }
+
+    public int[] usersWhoLiked(int filmId) {
+        return usersByFilm.getOrDefault(filmId, IntArrays.EMPTY);
+    }
+
+    private static int[] emptyToNull(int[] row) {
+        return row.length == 0 ? null : row;
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static int row(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int column(long packed) {
+        return (int) packed;
+    }
+
+    // Делит отсортированный массив пар по границам строк и собирает строки параллельно
+    private static final class RowBuilder extends RecursiveAction {
+        private final long[] pairs;
+        private final int from;
+        private final int to;
+        private final Map<Integer, int[]> rows;
+
+        RowBuilder(long[] pairs, int from, int to, Map<Integer, int[]> rows) {
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                while (middle < to && row(pairs[middle]) == row(pairs[middle - 1])) {
+                    middle++;
+                }
+                if (middle < to) {
+                    invokeAll(new RowBuilder(pairs, from, middle, rows), new RowBuilder(pairs, middle, to, rows));
+                    return;
+                }
+            }
+            int start = from;
+            while (start < to) {
+                int row = row(pairs[start]);
+                int end = start;
+                while (end < to && row(pairs[end]) == row) {
+                    end++;
+                }
+                int[] columns = new int[end - start];
+                for (int i = start; i < end; i++) {
+                    columns[i - start] = column(pairs[i]);
+                }
+                rows.put(row, columns);
+                start = end;
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+@Component
+@Slf4j
+public class PopularityIndex {
+    private static final int LOCK_STRIPES = 64;
+
+    private final FilmStorage filmStorage;
+    private final AtomicLong drift = new AtomicLong();
+    private final AtomicLong driftedFilms = new AtomicLong();
+    private volatile Leaderboard leaderboard = new Leaderboard();
+    private volatile Facets facets = new Facets();
+    private volatile boolean ready;
+    // Изменения, пришедшие во время перестроения; null, когда перестроения нет
+    private volatile BuildLog buildLog;
+    // Лайк и перенос фильма между срезами одного фильма не должны перемежаться, иначе срез теряет изменение счёта
+    private final ReentrantLock[] filmLocks = new ReentrantLock[LOCK_STRIPES];
+
+    @Autowired
+    public PopularityIndex(FilmStorage filmStorage, MeterRegistry meterRegistry) {
+        this.filmStorage = filmStorage;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            filmLocks[i] = new ReentrantLock();
+        }
+        Gauge.builder("filmorate.popularity.drift", drift, AtomicLong::get)
+                .description("Суммарное расхождение счётчиков лайков в памяти с films.likes_count")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.popularity.drift.films", driftedFilms, AtomicLong::get)
+                .description("Количество фильмов, у которых счётчик лайков в памяти расходится с films.likes_count")
+                .register(meterRegistry);
+        Gauge.builder("filmorate.popularity.films", this, index -> index.leaderboard.size())
+                .register(meterRegistry);
+    }
+
+    // Индекс строится в фоне уже после старта: пока он не готов, FilmService отдаёт топ запросом к БД
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        Thread thread = new Thread(this::warmUp, "popularity-index-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void warmUp() {
+        if (ready) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Не удалось построить индекс популярности, топ отдаётся запросом к БД", e);
+        }
+    }
+
+    // Живые изменения продолжают идти в старые структуры и отмечаются в buildLog. Подмена идёт под всеми
+    // полосами блокировок: тронутые за время сборки фильмы перечитываются из БД и переносятся в новые структуры
+    public synchronized void rebuild() {
+        BuildLog changes = new BuildLog();
+        buildLog = changes;
+        try {
+            Leaderboard rebuilt = new Leaderboard();
+            Map<Integer, Integer> counts = filmStorage.getLikesCounts();
+            counts.forEach(rebuilt::set);
+            Facets rebuiltFacets = new Facets();
+            filmStorage.streamAll(film -> rebuiltFacets.add(film.getId(), genreIds(film), year(film),
+                    counts.getOrDefault(film.getId(), 0)));
+            lockAll();
+            try {
+                replay(changes, rebuilt, rebuiltFacets);
+                leaderboard = rebuilt;
+                facets = rebuiltFacets;
+            } finally {
+                unlockAll();
+            }
+        } finally {
+            buildLog = null;
+        }
+        ready = true;
+        drift.set(0);
+        driftedFilms.set(0);
+        log.info("Индекс популярности построен, фильмов: {}", leaderboard.size());
+    }
+
+    private void replay(BuildLog changes, Leaderboard rebuilt, Facets rebuiltFacets) {
+        if (changes.touched.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> counts = filmStorage.getLikesCounts(new ArrayList<>(changes.touched));
+        for (Integer filmId : changes.touched) {
+            long score = counts.getOrDefault(filmId, 0);
+            rebuilt.set(filmId, score);
+            Film film = changes.films.get(filmId);
+            if (film != null) {
+                rebuiltFacets.move(filmId, genreIds(film), year(film), score);
+            } else {
+                rebuiltFacets.setScore(filmId, score);
+            }
+        }
+        log.info("При перестроении индекса популярности перечитано фильмов, изменённых во время сборки: {}",
+                changes.touched.size());
+    }
+
+    public void onFilmCreated(Film film) {
+        ReentrantLock lock = lockFor(film.getId());
+        lock.lock();
+        try {
+            leaderboard.track(film.getId());
+            facets.add(film.getId(), genreIds(film), year(film), 0);
+            record(film.getId(), film);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Жанры и год фильма могли измениться: переносим его в нужные срезы с текущим счётом
+    public void onFilmUpdated(Film film) {
+        ReentrantLock lock = lockFor(film.getId());
+        lock.lock();
+        try {
+            facets.move(film.getId(), genreIds(film), year(film), leaderboard.score(film.getId()));
+            record(film.getId(), film);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onLikeAdded(int filmId) {
+        addScore(filmId, 1);
+    }
+
+    public void onLikeRemoved(int filmId) {
+        addScore(filmId, -1);
+    }
+
+    private void addScore(int filmId, long delta) {
+        ReentrantLock lock = lockFor(filmId);
+        lock.lock();
+        try {
+            leaderboard.add(filmId, delta);
+            facets.addScore(filmId, delta);
+            record(filmId, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Вызывается под полосой фильма, поэтому не перемежается с подменой структур
+    private void record(int filmId, Film film) {
+        BuildLog changes = buildLog;
+        if (changes != null) {
+            changes.touched.add(filmId);
+            if (film != null) {
+                changes.films.put(filmId, film);
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(int filmId) {
+        return filmLocks[Math.floorMod(filmId, LOCK_STRIPES)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : filmLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = filmLocks.length - 1; i >= 0; i--) {
+            filmLocks[i].unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getLikesCount(int filmId) {
+        return leaderboard.score(filmId);
+    }
+
+    public int[] topFilmIds(int count) {
+        return leaderboard.top(count);
+    }
+
+    public int[] topFilmIds(int count, Integer genreId, Integer year) {
+        if (genreId == null && year == null) {
+            return topFilmIds(count);
+        }
+        Leaderboard slice = facets.slice(genreId, year);
+        return slice != null ? slice.top(count) : IntArrays.EMPTY;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.popularity.drift-check-interval-ms:60000}",
+            fixedDelayString = "${filmorate.popularity.drift-check-interval-ms:60000}")
+    public void checkDrift() {
+        if (!ready) {
+            return;
+        }
+        Map<Integer, Long> inMemory = leaderboard.snapshot();
+        Map<Integer, Integer> inDb = new HashMap<>(filmStorage.getLikesCounts());
+
+        long totalDrift = 0;
+        long films = 0;
+        for (Map.Entry<Integer, Long> entry : inMemory.entrySet()) {
+            Integer dbCount = inDb.remove(entry.getKey());
+            long diff = Math.abs(entry.getValue() - (dbCount != null ? dbCount : 0));
+            if (diff > 0) {
+                totalDrift += diff;
+                films++;
+            }
+        }
+        for (Integer dbCount : inDb.values()) {
+            if (dbCount > 0) {
+                totalDrift += dbCount;
+                films++;
+            }
+        }
+
+        drift.set(totalDrift);
+        driftedFilms.set(films);
+        if (totalDrift > 0) {
+            log.warn("Счётчики лайков в памяти расходятся с films.likes_count: фильмов {}, суммарно {}", films, totalDrift);
+        }
+    }
+
+    private static int[] genreIds(Film film) {
+        if (film.getGenres() == null) {
+            return IntArrays.EMPTY;
+        }
+        return film.getGenres().stream().map(Genre::getId).filter(Objects::nonNull).distinct().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private static int year(Film film) {
+        return film.getReleaseDate().getYear();
+    }
+
+    // Срезы рейтинга по жанру, по году и по паре (жанр, год)
+    private static final class Facets {
+        private final Map<Integer, Leaderboard> byGenre = new ConcurrentHashMap<>();
+        private final Map<Integer, Leaderboard> byYear = new ConcurrentHashMap<>();
+        private final Map<Long, Leaderboard> byGenreAndYear = new ConcurrentHashMap<>();
+        private final Map<Integer, FilmFacets> filmFacets = new ConcurrentHashMap<>();
+
+        void add(int filmId, int[] genreIds, int year, long score) {
+            FilmFacets film = new FilmFacets(genreIds, year);
+            filmFacets.put(filmId, film);
+            forEachSlice(film, true, slice -> slice.set(filmId, score));
+        }
+
+        // Срезы, в которых фильм остаётся, не трогаем: читатель не должен видеть его пропавшим на время переноса
+        void move(int filmId, int[] genreIds, int year, long score) {
+            FilmFacets film = new FilmFacets(genreIds, year);
+            FilmFacets old = filmFacets.put(filmId, film);
+            Set<Leaderboard> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+            forEachSlice(film, true, slice -> {
+                kept.add(slice);
+                slice.set(filmId, score);
+            });
+            if (old != null) {
+                forEachSlice(old, false, slice -> {
+                    if (!kept.contains(slice)) {
+                        slice.remove(filmId);
+                    }
+                });
+            }
+        }
+
+        void setScore(int filmId, long score) {
+            FilmFacets film = filmFacets.get(filmId);
+            if (film != null) {
+                forEachSlice(film, false, slice -> slice.set(filmId, score));
+            }
+        }
+
+        void addScore(int filmId, long delta) {
+            FilmFacets film = filmFacets.get(filmId);
+            if (film != null) {
+                forEachSlice(film, false, slice -> slice.add(filmId, delta));
+            }
+        }
+
+        Leaderboard slice(Integer genreId, Integer year) {
+            if (genreId == null) {
+                return byYear.get(year);
+            }
+            if (year == null) {
+                return byGenre.get(genreId);
+            }
+            return byGenreAndYear.get(key(genreId, year));
+        }
+
+        private void forEachSlice(FilmFacets film, boolean create, Consumer<Leaderboard> action) {
+            apply(byYear, film.year(), create, action);
+            for (int genreId : film.genreIds()) {
+                apply(byGenre, genreId, create, action);
+                apply(byGenreAndYear, key(genreId, film.year()), create, action);
+            }
+        }
+
+        private static <K> void apply(Map<K, Leaderboard> slices, K key, boolean create,
+                                      Consumer<Leaderboard> action) {
+            Leaderboard slice = create ? slices.computeIfAbsent(key, k -> new Leaderboard()) : slices.get(key);
+            if (slice != null) {
+                action.accept(slice);
+            }
+        }
+
+        private static long key(int genreId, int year) {
+            return ((long) genreId << 32) | (year & 0xFFFFFFFFL);
+        }
+    }
+
+    private record FilmFacets(int[] genreIds, int year) {
+    }
+
+    private static final class BuildLog {
+        private final Set<Integer> touched = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, Film> films = new ConcurrentHashMap<>();
+    }
+}
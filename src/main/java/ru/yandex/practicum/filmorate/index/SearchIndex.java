@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class SearchIndex {
+    private static final int MAX_LIKES_SCORE = (1 << 24) - 1;
+
+    private final FilmStorage filmStorage;
+    private final PopularityIndex popularityIndex;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Map<String, int[]> postings = new ConcurrentHashMap<>();
+    private volatile Map<Integer, String[]> termsByFilm = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SearchIndex(FilmStorage filmStorage, PopularityIndex popularityIndex) {
+        this.filmStorage = filmStorage;
+        this.popularityIndex = popularityIndex;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        List<Film> films = new ArrayList<>();
+        filmStorage.streamAll(films::add);
+
+        Map<Integer, String[]> terms = films.parallelStream()
+                .collect(Collectors.toConcurrentMap(Film::getId, SearchIndex::terms));
+        Map<String, int[]> rebuilt = terms.entrySet().parallelStream()
+                .flatMap(entry -> Arrays.stream(entry.getValue()).map(term -> Map.entry(term, entry.getKey())))
+                .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                        Collectors.mapping(Map.Entry::getValue, Collectors.toList())))
+                .entrySet().parallelStream()
+                .collect(Collectors.toConcurrentMap(Map.Entry::getKey,
+                        entry -> entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray()));
+
+        postings = rebuilt;
+        termsByFilm = terms;
+        log.info("Поисковый индекс построен: фильмов {}, термов {}", terms.size(), rebuilt.size());
+    }
+
+    public void index(Film film) {
+        int filmId = film.getId();
+        String[] newTerms = terms(film);
+        writeLock.lock();
+        try {
+            String[] oldTerms = termsByFilm.put(filmId, newTerms);
+            if (oldTerms != null) {
+                for (String term : oldTerms) {
+                    postings.computeIfPresent(term, (key, ids) -> {
+                        int[] remaining = IntArrays.removeSorted(ids, filmId);
+                        return remaining.length == 0 ? null : remaining;
+                    });
+                }
+            }
+            for (String term : newTerms) {
+                postings.compute(term, (key, ids) -> IntArrays.insertSorted(ids != null ? ids : IntArrays.EMPTY, filmId));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Ранжирование: число совпавших термов запроса, затем число лайков, затем id
+    public int[] search(String query, int count) {
+        String[] queryTerms = TextTokenizer.tokenize(query);
+        if (queryTerms.length == 0 || count <= 0) {
+            return IntArrays.EMPTY;
+        }
+        IntCounter matches = new IntCounter(64);
+        for (String term : queryTerms) {
+            for (int filmId : postings.getOrDefault(term, IntArrays.EMPTY)) {
+                matches.add(filmId, 1);
+            }
+        }
+
+        TopK top = new TopK(Math.min(count, matches.size()));
+        matches.forEach((filmId, matched) -> {
+            long likes = Math.min(popularityIndex.getLikesCount(filmId), MAX_LIKES_SCORE);
+            top.offer(filmId, (Math.min(matched, 127) << 24) | (int) likes);
+        });
+        return top.ids();
+    }
+
+    private static String[] terms(Film film) {
+        String text = film.getDescription() != null ? film.getName() + " " + film.getDescription() : film.getName();
+        return TextTokenizer.tokenize(text);
+    }
+}
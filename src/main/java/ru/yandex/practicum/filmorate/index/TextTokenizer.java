@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Разбивает текст на термы: нижний регистр, ё -> е, отсечение типичных окончаний русского и английского
+public final class TextTokenizer {
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MIN_STEM_LENGTH = 3;
+    private static final String[] RUSSIAN_ENDINGS = sortedByLength(
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "ться", "ешь", "ет", "ют", "ут",
+            "ия", "ии", "ию", "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ие", "ов", "ев", "ом", "ем",
+            "ам", "ям", "ах", "ях", "ую", "юю", "ть",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й");
+    private static final String[] ENGLISH_ENDINGS = sortedByLength("ing", "ed", "es", "s");
+
+    private TextTokenizer() {
+    }
+
+    public static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String word = normalized.substring(start, i);
+                if (word.length() >= MIN_TERM_LENGTH) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    static String stem(String word) {
+        String[] endings = isCyrillic(word) ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - ending.length());
+            }
+        }
+        return word;
+    }
+
+    private static boolean isCyrillic(String word) {
+        return Character.UnicodeBlock.of(word.charAt(0)) == Character.UnicodeBlock.CYRILLIC;
+    }
+
+    private static String[] sortedByLength(String... endings) {
+        String[] sorted = endings.clone();
+        Arrays.sort(sorted, (a, b) -> b.length() - a.length());
+        return sorted;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+// Ограниченная min-куча: хранит k лучших id по score (при равенстве выше меньший id).
+// Массив растёт по мере поступления кандидатов, поэтому большой k сам по себе память не занимает
+public final class TopK {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private long[] heap;
+    private int size;
+
+    public TopK(int k) {
+        this.k = Math.max(k, 0);
+        this.heap = new long[Math.min(this.k, INITIAL_CAPACITY)];
+    }
+
+    public void offer(int id, int score) {
+        if (k == 0) {
+            return;
+        }
+        long packed = pack(id, score);
+        if (size < k) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, (int) Math.min((long) heap.length * 2, k));
+            }
+            heap[size] = packed;
+            siftUp(size++);
+        } else if (packed > heap[0]) {
+            heap[0] = packed;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] ids() {
+        long[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted);
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = unpackId(sorted[size - 1 - i]);
+        }
+        return ids;
+    }
+
+    private static long pack(int id, int score) {
+        return ((long) score << 32) | (Integer.MAX_VALUE - (long) id);
+    }
+
+    private static int unpackId(long packed) {
+        return (int) (Integer.MAX_VALUE - (packed & 0xFFFFFFFFL));
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@Slf4j
+public class TrendingIndex {
+    private static final Duration HISTORY = Duration.ofHours(FilmActivity.HOUR_SLOTS);
+
+    private final LikeStorage likeStorage;
+    private final Map<Integer, FilmActivity> activities = new ConcurrentHashMap<>();
+    private volatile Map<TrendingWindow, Leaderboard> leaderboards = emptyLeaderboards();
+    // Фильмы, получившие лайки в данную минуту/час: при выходе отметки из окна их счёт пересчитывается
+    private final ConcurrentSkipListMap<Long, Set<Integer>> touchedByMinute = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Set<Integer>> touchedByHourForDay = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Set<Integer>> touchedByHourForWeek = new ConcurrentSkipListMap<>();
+    // Вытеснение идёт из планировщика и из запросов: выполняется одним потоком и не чаще раза в минуту
+    private final ReentrantLock expireLock = new ReentrantLock();
+    private long expiredMinute = Long.MIN_VALUE;
+
+    @Autowired
+    public TrendingIndex(LikeStorage likeStorage) {
+        this.likeStorage = likeStorage;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Instant now = Instant.now();
+        long nowMinute = toMinute(now);
+        activities.clear();
+        expireLock.lock();
+        try {
+            expiredMinute = Long.MIN_VALUE;
+        } finally {
+            expireLock.unlock();
+        }
+        touchedByMinute.clear();
+        touchedByHourForDay.clear();
+        touchedByHourForWeek.clear();
+        likeStorage.forEachLikeSince(now.minus(HISTORY), (filmId, userId, likedAt) ->
+                record(filmId, toMinute(likedAt), nowMinute, 1, false));
+
+        Map<TrendingWindow, Leaderboard> rebuilt = emptyLeaderboards();
+        rebuilt.forEach((window, leaderboard) -> activities.forEach((filmId, activity) -> {
+            long score = activity.score(window, nowMinute);
+            if (score > 0) {
+                leaderboard.set(filmId, score);
+            }
+        }));
+        leaderboards = rebuilt;
+        log.info("Индекс трендов построен, фильмов с лайками за неделю: {}", activities.size());
+    }
+
+    public void onLikeAdded(int filmId, Instant likedAt) {
+        onLikeChanged(filmId, likedAt, 1, Instant.now());
+    }
+
+    public void onLikeRemoved(int filmId, Instant likedAt) {
+        onLikeChanged(filmId, likedAt, -1, Instant.now());
+    }
+
+    public int[] topFilmIds(TrendingWindow window, int count) {
+        return topFilmIds(window, count, Instant.now());
+    }
+
+    void onLikeChanged(int filmId, Instant likedAt, int delta, Instant now) {
+        record(filmId, toMinute(likedAt), toMinute(now), delta, true);
+    }
+
+    int[] topFilmIds(TrendingWindow window, int count, Instant now) {
+        expire(now);
+        return leaderboards.get(window).top(count);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void expire() {
+        expire(Instant.now());
+    }
+
+    void expire(Instant now) {
+        long nowMinute = toMinute(now);
+        long nowHour = nowMinute / 60;
+        expireLock.lock();
+        try {
+            if (nowMinute <= expiredMinute) {
+                return;
+            }
+            expire(touchedByMinute, nowMinute - FilmActivity.MINUTE_SLOTS, nowMinute);
+            expire(touchedByHourForDay, nowHour - 24, nowMinute);
+            Set<Integer> stale = new HashSet<>();
+            expire(touchedByHourForWeek, nowHour - FilmActivity.HOUR_SLOTS, nowMinute, stale);
+            for (Integer filmId : stale) {
+                activities.computeIfPresent(filmId,
+                        (id, activity) -> activity.score(TrendingWindow.WEEK, nowMinute) > 0 ? activity : null);
+            }
+            expiredMinute = nowMinute;
+        } finally {
+            expireLock.unlock();
+        }
+    }
+
+    private void record(int filmId, long minute, long nowMinute, int delta, boolean rescore) {
+        long hour = minute / 60;
+        if (hour <= nowMinute / 60 - FilmActivity.HOUR_SLOTS) {
+            return;
+        }
+        // Счёт меняется и попадает в рейтинги под блокировкой фильма, чтобы устаревший счёт не перезаписал новый
+        activities.compute(filmId, (id, activity) -> {
+            FilmActivity updated = activity != null ? activity : new FilmActivity();
+            updated.add(minute, nowMinute, delta);
+            if (rescore) {
+                applyScores(id, updated, nowMinute);
+            }
+            return updated;
+        });
+        touch(touchedByMinute, minute, filmId);
+        touch(touchedByHourForDay, hour, filmId);
+        touch(touchedByHourForWeek, hour, filmId);
+    }
+
+    private void rescore(int filmId, long nowMinute) {
+        activities.compute(filmId, (id, activity) -> {
+            applyScores(id, activity, nowMinute);
+            return activity;
+        });
+    }
+
+    private void applyScores(int filmId, FilmActivity activity, long nowMinute) {
+        leaderboards.forEach((window, leaderboard) -> {
+            long score = activity != null ? activity.score(window, nowMinute) : 0;
+            if (score > 0) {
+                leaderboard.set(filmId, score);
+            } else {
+                leaderboard.remove(filmId);
+            }
+        });
+    }
+
+    private void expire(ConcurrentSkipListMap<Long, Set<Integer>> touched, long upToStamp, long nowMinute) {
+        expire(touched, upToStamp, nowMinute, null);
+    }
+
+    private void expire(ConcurrentSkipListMap<Long, Set<Integer>> touched, long upToStamp, long nowMinute,
+                        Set<Integer> expired) {
+        Iterator<Map.Entry<Long, Set<Integer>>> iterator = touched.headMap(upToStamp, true).entrySet().iterator();
+        while (iterator.hasNext()) {
+            Set<Integer> filmIds = iterator.next().getValue();
+            iterator.remove();
+            for (Integer filmId : filmIds) {
+                rescore(filmId, nowMinute);
+                if (expired != null) {
+                    expired.add(filmId);
+                }
+            }
+        }
+    }
+
+    private static Map<TrendingWindow, Leaderboard> emptyLeaderboards() {
+        Map<TrendingWindow, Leaderboard> leaderboards = new EnumMap<>(TrendingWindow.class);
+        for (TrendingWindow window : TrendingWindow.values()) {
+            leaderboards.put(window, new Leaderboard());
+        }
+        return leaderboards;
+    }
+
+    private static void touch(Map<Long, Set<Integer>> touched, long stamp, int filmId) {
+        touched.computeIfAbsent(stamp, key -> ConcurrentHashMap.newKeySet()).add(filmId);
+    }
+
+    private static long toMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60L);
+    }
+}
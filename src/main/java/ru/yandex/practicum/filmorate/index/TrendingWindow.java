@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.index;
+
+public enum TrendingWindow {
+    HOUR("1h"),
+    DAY("24h"),
+    WEEK("7d");
+
+    private final String code;
+
+    TrendingWindow(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static TrendingWindow fromCode(String code) {
+        for (TrendingWindow window : values()) {
+            if (window.code.equalsIgnoreCase(code)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Монотонные версии фильмов и каталога фильмов для условных GET-запросов
+@Component
+public class VersionTracker {
+    // Момент запуска входит в ETag: изменения, сделанные до перезапуска, не должны совпасть со старыми версиями
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Integer, Version> films = new ConcurrentHashMap<>();
+    private volatile Version filmCatalog = new Version(0, startedAt);
+
+    public Version getFilmVersion(int filmId) {
+        return films.getOrDefault(filmId, new Version(0, startedAt));
+    }
+
+    public Version getFilmCatalogVersion() {
+        return filmCatalog;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void onFilmChanged(int filmId) {
+        Version version = new Version(sequence.incrementAndGet(), System.currentTimeMillis());
+        films.put(filmId, version);
+        filmCatalog = version;
+    }
+
+    public record Version(long value, long modifiedAt) {
+    }
+}
@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+@Data
+public class BatchItemResult {
+    private int index;
+    private Integer id;
+    private String error;
+
+    public BatchItemResult(int index, Integer id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(int index, Integer id) {
+        return new BatchItemResult(index, id, null);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
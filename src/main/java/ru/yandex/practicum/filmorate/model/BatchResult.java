@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchResult {
+    private int total;
+    private int created;
+    private int failed;
+    private List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items) {
+        this.items = items;
+        this.total = items.size();
+        this.created = (int) items.stream().filter(BatchItemResult::isSuccess).count();
+        this.failed = total - created;
+    }
+}
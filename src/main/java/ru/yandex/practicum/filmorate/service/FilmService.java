@@ -1,12 +1,30 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.IntArrays;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.SearchIndex;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.index.TrendingWindow;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
-import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -14,26 +32,91 @@ import java.util.stream.Collectors;
 @Slf4j
 public class FilmService {
     private final FilmStorage filmStorage;
-    private final UserStorage userStorage;
     private final LikeStorage likeStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final PopularityIndex popularityIndex;
+    private final ExistenceIndex existenceIndex;
+    private final TrendingIndex trendingIndex;
+    private final LikeMatrix likeMatrix;
+    private final SearchIndex searchIndex;
+    private final VersionTracker versionTracker;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
+    private static final LocalDate CINEMA_BIRTHDAY = LocalDate.of(1895, 12, 28);
 
     @Autowired
-    public FilmService(FilmStorage filmStorage, UserStorage userStorage, LikeStorage likeStorage) {
+    public FilmService(FilmStorage filmStorage, LikeStorage likeStorage,
+                       ReferenceDataRegistry referenceDataRegistry, PopularityIndex popularityIndex,
+                       ExistenceIndex existenceIndex, TrendingIndex trendingIndex,
+                       LikeMatrix likeMatrix, SearchIndex searchIndex, VersionTracker versionTracker,
+                       Validator validator, TransactionTemplate transactionTemplate,
+                       @Value("${filmorate.batch.chunk-size:1000}") int batchChunkSize) {
         this.filmStorage = filmStorage;
-        this.userStorage = userStorage;
         this.likeStorage = likeStorage;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.popularityIndex = popularityIndex;
+        this.existenceIndex = existenceIndex;
+        this.trendingIndex = trendingIndex;
+        this.likeMatrix = likeMatrix;
+        this.searchIndex = searchIndex;
+        this.versionTracker = versionTracker;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public Film create(Film film) {
+        validateFilmReleaseDate(film);
+        Film createdFilm = filmStorage.create(film);
+        onFilmCreated(createdFilm);
+        return createdFilm;
+    }
+
+    public Film update(Film film) {
+        validateFilmReleaseDate(film);
+        Film updatedFilm = filmStorage.update(film);
+        popularityIndex.onFilmUpdated(updatedFilm);
+        searchIndex.index(updatedFilm);
+        versionTracker.onFilmChanged(updatedFilm.getId());
+        return updatedFilm;
+    }
+
+    public BatchResult createAll(List<Film> films) {
+        BatchItemResult[] results = new BatchItemResult[films.size()];
+        List<Integer> validIndexes = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            String error = validateForImport(films.get(i));
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, error);
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += batchChunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + batchChunkSize, validIndexes.size()));
+            importChunk(films, chunk, results);
+        }
+
+        BatchResult result = new BatchResult(Arrays.asList(results));
+        log.info("Пакетный импорт фильмов: всего {}, добавлено {}, с ошибками {}",
+                result.getTotal(), result.getCreated(), result.getFailed());
+        return result;
     }
 
     public void addLike(Integer filmId, Integer userId) {
         validateFilmExists(filmId);
         validateUserExists(userId);
 
-        if (likeStorage.hasLike(filmId, userId)) {
+        // Индексы меняются, только если лайк действительно добавлен: параллельный повтор сюда не дойдёт
+        if (!likeStorage.addLike(filmId, userId)) {
             log.warn("Пользователь {} уже поставил лайк фильму {}", userId, filmId);
             return;
         }
-
-        likeStorage.addLike(filmId, userId);
+        popularityIndex.onLikeAdded(filmId);
+        trendingIndex.onLikeAdded(filmId, Instant.now());
+        likeMatrix.onLikeAdded(filmId, userId);
         log.info("Пользователь {} поставил лайк фильму {}", userId, filmId);
     }
 
@@ -41,18 +124,43 @@ public class FilmService {
         validateFilmExists(filmId);
         validateUserExists(userId);
 
-        likeStorage.removeLike(filmId, userId);
+        // Время лайка нужно окну трендов, а его отсутствие означает, что лайка нет
+        Instant likedAt = likeStorage.getLikeTime(filmId, userId);
+        if (likedAt == null) {
+            log.warn("Пользователь {} не ставил лайк фильму {}", userId, filmId);
+            return;
+        }
+
+        if (!likeStorage.removeLike(filmId, userId)) {
+            log.warn("Лайк пользователя {} фильму {} уже удалён", userId, filmId);
+            return;
+        }
+        popularityIndex.onLikeRemoved(filmId);
+        trendingIndex.onLikeRemoved(filmId, likedAt);
+        likeMatrix.onLikeRemoved(filmId, userId);
         log.info("Пользователь {} удалил лайк с фильма {}", userId, filmId);
     }
 
-    public List<Film> getPopularFilms(int count) {
-        return filmStorage.findAll().stream()
-                .sorted((f1, f2) -> Integer.compare(
-                        likeStorage.getLikesCount(f2.getId()),
-                        likeStorage.getLikesCount(f1.getId())
-                ))
-                .limit(count)
-                .collect(Collectors.toList());
+    public List<Film> getPopularFilms(int count, Integer genreId, Integer year) {
+        if (!popularityIndex.isReady()) {
+            return filmStorage.findTopByLikes(count, genreId, year);
+        }
+        return filmStorage.findAllByIds(IntArrays.toList(popularityIndex.topFilmIds(count, genreId, year)));
+    }
+
+    public List<Film> getTrendingFilms(String windowCode, int count) {
+        TrendingWindow window = TrendingWindow.fromCode(windowCode);
+        if (window == null) {
+            throw new ValidationException("Неизвестное окно трендов: " + windowCode + ", допустимо 1h, 24h или 7d");
+        }
+        return filmStorage.findAllByIds(IntArrays.toList(trendingIndex.topFilmIds(window, count)));
+    }
+
+    public List<Film> searchFilms(String query, int count) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
+        return filmStorage.findAllByIds(IntArrays.toList(searchIndex.search(query, count)));
     }
 
     public int getLikesCount(Integer filmId) {
@@ -60,14 +168,83 @@ public class FilmService {
         return likeStorage.getLikesCount(filmId);
     }
 
+    private void importChunk(List<Film> films, List<Integer> chunk, BatchItemResult[] results) {
+        List<Film> chunkFilms = chunk.stream().map(films::get).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> filmStorage.createAll(chunkFilms));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось импортировать пакет из {} фильмов, повтор по одному: {}", chunk.size(), e.getMessage());
+            for (Integer index : chunk) {
+                importOne(films.get(index), index, results);
+            }
+            return;
+        }
+
+        for (Integer index : chunk) {
+            Film film = films.get(index);
+            onFilmCreated(film);
+            results[index] = BatchItemResult.created(index, film.getId());
+        }
+    }
+
+    private void importOne(Film film, int index, BatchItemResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> filmStorage.createAll(List.of(film)));
+            onFilmCreated(film);
+            results[index] = BatchItemResult.created(index, film.getId());
+        } catch (RuntimeException e) {
+            film.setId(null);
+            results[index] = BatchItemResult.failed(index, "Ошибка сохранения: " + e.getMessage());
+        }
+    }
+
+    private void onFilmCreated(Film film) {
+        existenceIndex.onFilmCreated(film.getId());
+        popularityIndex.onFilmCreated(film);
+        searchIndex.index(film);
+        versionTracker.onFilmChanged(film.getId());
+    }
+
+    private String validateForImport(Film film) {
+        if (film == null) {
+            return "Некорректная запись";
+        }
+        Set<ConstraintViolation<Film>> violations = validator.validate(film);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Film> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        if (film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
+            return "Дата релиза не может быть раньше 28 декабря 1895 года";
+        }
+        if (film.getMpa().getId() == null || referenceDataRegistry.getMpa(film.getMpa().getId()) == null) {
+            return "Указанный рейтинг MPA не существует";
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (genre.getId() == null || referenceDataRegistry.getGenre(genre.getId()) == null) {
+                    return "Указанный жанр не существует";
+                }
+            }
+        }
+        return null;
+    }
+
+    private void validateFilmReleaseDate(Film film) {
+        if (film.getReleaseDate().isBefore(CINEMA_BIRTHDAY)) {
+            log.warn("Попытка добавить фильм с некорректной датой релиза: {}", film.getReleaseDate());
+            throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
+        }
+    }
+
     private void validateFilmExists(Integer filmId) {
-        if (!filmStorage.existsById(filmId)) {
+        if (!existenceIndex.filmExists(filmId)) {
             throw new NoSuchElementException("Фильм с id " + filmId + " не найден");
         }
     }
 
     private void validateUserExists(Integer userId) {
-        if (!userStorage.existsById(userId)) {
+        if (!existenceIndex.userExists(userId)) {
             throw new NoSuchElementException("Пользователь с id " + userId + " не найден");
         }
     }
@@ -3,24 +3,24 @@ package ru.yandex.practicum.filmorate.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class GenreService {
-    private final GenreStorage genreStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public GenreService(GenreStorage genreStorage) {
-        this.genreStorage = genreStorage;
+    public GenreService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     public List<Genre> getAllGenres() {
-        return genreStorage.getAllGenres();
+        return referenceDataRegistry.getAllGenres();
     }
 
     public Optional<Genre> getGenreById(Integer id) {
-        return genreStorage.getGenreById(id);
+        return id == null ? Optional.empty() : Optional.ofNullable(referenceDataRegistry.getGenre(id));
     }
 }
\ No newline at end of file
@@ -3,24 +3,24 @@ package ru.yandex.practicum.filmorate.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.model.AgeRating;
-import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class MpaService {
-    private final MpaStorage mpaStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
     @Autowired
-    public MpaService(MpaStorage mpaStorage) {
-        this.mpaStorage = mpaStorage;
+    public MpaService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     public List<AgeRating> getAllMpa() {
-        return mpaStorage.getAllMpa();
+        return referenceDataRegistry.getAllMpa();
     }
 
     public Optional<AgeRating> getMpaById(Integer id) {
-        return mpaStorage.getMpaById(id);
+        return id == null ? Optional.empty() : Optional.ofNullable(referenceDataRegistry.getMpa(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.IntArrays;
+import ru.yandex.practicum.filmorate.index.IntCounter;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+@Slf4j
+public class RecommendationService {
+    private final LikeMatrix likeMatrix;
+    private final FilmStorage filmStorage;
+    private final ExistenceIndex existenceIndex;
+    private final int neighbours;
+    private final int maxFilmFanOut;
+
+    @Autowired
+    public RecommendationService(LikeMatrix likeMatrix, FilmStorage filmStorage, ExistenceIndex existenceIndex,
+                                 @Value("${filmorate.recommendations.neighbours:30}") int neighbours,
+                                 @Value("${filmorate.recommendations.max-film-fan-out:2000}") int maxFilmFanOut) {
+        this.likeMatrix = likeMatrix;
+        this.filmStorage = filmStorage;
+        this.existenceIndex = existenceIndex;
+        this.neighbours = neighbours;
+        this.maxFilmFanOut = maxFilmFanOut;
+    }
+
+    public List<Film> getRecommendations(Integer userId, int count) {
+        if (!existenceIndex.userExists(userId)) {
+            throw new NoSuchElementException("Пользователь с id " + userId + " не найден");
+        }
+        return filmStorage.findAllByIds(IntArrays.toList(recommendFilmIds(userId, count)));
+    }
+
+    public int[] recommendFilmIds(int userId, int count) {
+        int[] liked = likeMatrix.filmsLikedBy(userId);
+        if (liked.length == 0 || count <= 0) {
+            return IntArrays.EMPTY;
+        }
+
+        IntCounter overlap = new IntCounter(liked.length * 16);
+        for (int filmId : liked) {
+            int[] users = likeMatrix.usersWhoLiked(filmId);
+            // У очень популярных фильмов берём равномерную выборку лайкнувших, чтобы ограничить время ответа
+            int step = Math.max(1, users.length / maxFilmFanOut);
+            for (int i = 0; i < users.length; i += step) {
+                if (users[i] != userId) {
+                    overlap.add(users[i], 1);
+                }
+            }
+        }
+
+        int[] nearest = overlap.top(neighbours);
+        // Кандидатов не больше, чем лайков у соседей: от запрошенного count размер таблицы не зависит
+        long candidates = 0;
+        for (int neighbourId : nearest) {
+            candidates += likeMatrix.filmsLikedBy(neighbourId).length;
+        }
+        IntCounter scores = new IntCounter((int) Math.min(candidates, Integer.MAX_VALUE));
+        for (int neighbourId : nearest) {
+            int weight = overlap.get(neighbourId);
+            for (int filmId : likeMatrix.filmsLikedBy(neighbourId)) {
+                if (!IntArrays.containsSorted(liked, filmId)) {
+                    scores.add(filmId, weight);
+                }
+            }
+        }
+        return scores.top(count);
+    }
+}
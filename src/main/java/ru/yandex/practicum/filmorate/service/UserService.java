@@ -1,8 +1,18 @@
 package ru.yandex.practicum.filmorate.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.FriendSuggestions;
+import ru.yandex.practicum.filmorate.index.IntArrays;
+import ru.yandex.practicum.filmorate.model.BatchItemResult;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
@@ -15,11 +25,85 @@ import java.util.stream.Collectors;
 public class UserService {
     private final UserStorage userStorage;
     private final FriendshipStorage friendshipStorage;
+    private final FriendGraph friendGraph;
+    private final FriendSuggestions friendSuggestions;
+    private final ExistenceIndex existenceIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchChunkSize;
 
     @Autowired
-    public UserService(UserStorage userStorage, FriendshipStorage friendshipStorage) {
+    public UserService(UserStorage userStorage, FriendshipStorage friendshipStorage, FriendGraph friendGraph,
+                       FriendSuggestions friendSuggestions, ExistenceIndex existenceIndex,
+                       Validator validator, TransactionTemplate transactionTemplate,
+                       @Value("${filmorate.batch.chunk-size:1000}") int batchChunkSize) {
         this.userStorage = userStorage;
         this.friendshipStorage = friendshipStorage;
+        this.friendGraph = friendGraph;
+        this.friendSuggestions = friendSuggestions;
+        this.existenceIndex = existenceIndex;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    public User create(User user) {
+        setUserNameFromLoginIfEmpty(user);
+        User createdUser = userStorage.create(user);
+        existenceIndex.onUserCreated(createdUser.getId());
+        return createdUser;
+    }
+
+    public User update(User user) {
+        setUserNameFromLoginIfEmpty(user);
+        return userStorage.update(user);
+    }
+
+    public BatchResult createAll(List<User> users) {
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchLogins = new HashSet<>();
+
+        List<Integer> candidates = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = validateForImport(user);
+            if (error == null && !batchEmails.add(user.getEmail())) {
+                error = "Email " + user.getEmail() + " повторяется в пакете";
+            } else if (error == null && !batchLogins.add(user.getLogin())) {
+                error = "Логин " + user.getLogin() + " повторяется в пакете";
+            }
+            if (error != null) {
+                results[i] = BatchItemResult.failed(i, error);
+            } else {
+                setUserNameFromLoginIfEmpty(user);
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingEmails = userStorage.findExistingEmails(batchEmails);
+        Set<String> existingLogins = userStorage.findExistingLogins(batchLogins);
+        List<Integer> validIndexes = new ArrayList<>(candidates.size());
+        for (Integer index : candidates) {
+            User user = users.get(index);
+            if (existingEmails.contains(user.getEmail())) {
+                results[index] = BatchItemResult.failed(index, "Пользователь с email " + user.getEmail() + " уже существует");
+            } else if (existingLogins.contains(user.getLogin())) {
+                results[index] = BatchItemResult.failed(index, "Пользователь с логином " + user.getLogin() + " уже существует");
+            } else {
+                validIndexes.add(index);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += batchChunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + batchChunkSize, validIndexes.size()));
+            importChunk(users, chunk, results);
+        }
+
+        BatchResult result = new BatchResult(Arrays.asList(results));
+        log.info("Пакетный импорт пользователей: всего {}, добавлено {}, с ошибками {}",
+                result.getTotal(), result.getCreated(), result.getFailed());
+        return result;
     }
 
     public void addFriend(Integer userId, Integer friendId) {
@@ -27,6 +111,8 @@ public class UserService {
         validateUserExists(friendId);
 
         friendshipStorage.addFriend(userId, friendId, FriendshipStatus.PENDING);
+        friendGraph.addEdge(userId, friendId, FriendshipStatus.PENDING);
+        friendSuggestions.onEdgesChanged(userId);
         log.info("Пользователь {} отправил запрос на дружбу пользователю {}", userId, friendId);
     }
 
@@ -35,6 +121,8 @@ public class UserService {
         validateUserExists(friendId);
 
         friendshipStorage.updateFriendshipStatus(friendId, userId, FriendshipStatus.CONFIRMED);
+        friendGraph.updateStatus(friendId, userId, FriendshipStatus.CONFIRMED);
+        friendSuggestions.onEdgesChanged(friendId);
         log.info("Пользователь {} подтвердил дружбу с пользователем {}", userId, friendId);
     }
 
@@ -43,6 +131,8 @@ public class UserService {
         validateUserExists(friendId);
 
         friendshipStorage.removeFriend(friendId, userId);
+        friendGraph.removeEdge(friendId, userId);
+        friendSuggestions.onEdgesChanged(friendId);
         log.info("Пользователь {} отклонил запрос на дружбу от пользователя {}", userId, friendId);
     }
 
@@ -51,60 +141,103 @@ public class UserService {
         validateUserExists(friendId);
 
         friendshipStorage.removeFriend(userId, friendId);
+        friendGraph.removeEdge(userId, friendId);
+        friendSuggestions.onEdgesChanged(userId);
         log.info("Пользователь {} удалил пользователя {} из друзей", userId, friendId);
     }
 
     public List<User> getFriends(Integer userId) {
         validateUserExists(userId);
 
-        return friendshipStorage.getFriendIds(userId).stream()
-                .map(id -> userStorage.findById(id).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return findUsers(friendGraph.getFriendIds(userId));
     }
 
     public List<User> getConfirmedFriends(Integer userId) {
         validateUserExists(userId);
 
-        return friendshipStorage.getFriends(userId).entrySet().stream()
-                .filter(entry -> entry.getValue() == FriendshipStatus.CONFIRMED)
-                .map(entry -> userStorage.findById(entry.getKey()).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return findUsers(friendGraph.getFriendIds(userId, FriendshipStatus.CONFIRMED));
     }
 
     public List<User> getPendingFriendRequests(Integer userId) {
         validateUserExists(userId);
 
-        return friendshipStorage.getIncomingFriendRequests(userId).stream()
-                .map(id -> userStorage.findById(id).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return findUsers(friendGraph.getIncomingRequestIds(userId));
     }
 
     public List<User> getCommonFriends(Integer userId, Integer otherUserId) {
         validateUserExists(userId);
         validateUserExists(otherUserId);
 
-        Set<Integer> userFriends = friendshipStorage.getFriendIds(userId);
-        Set<Integer> otherUserFriends = friendshipStorage.getFriendIds(otherUserId);
+        return findUsers(friendGraph.getCommonFriendIds(userId, otherUserId));
+    }
+
+    public List<User> getFriendSuggestions(Integer userId, int count) {
+        validateUserExists(userId);
 
-        return userFriends.stream()
-                .filter(otherUserFriends::contains)
-                .map(id -> userStorage.findById(id).orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return findUsers(friendSuggestions.suggest(userId, count));
     }
 
     public FriendshipStatus getFriendshipStatus(Integer userId, Integer friendId) {
         validateUserExists(userId);
         validateUserExists(friendId);
 
-        return friendshipStorage.getFriendshipStatus(userId, friendId);
+        return friendGraph.getStatus(userId, friendId);
+    }
+
+    private List<User> findUsers(int[] ids) {
+        return userStorage.findAllByIds(IntArrays.toList(ids));
+    }
+
+    private void importChunk(List<User> users, List<Integer> chunk, BatchItemResult[] results) {
+        List<User> chunkUsers = chunk.stream().map(users::get).collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status -> userStorage.createAll(chunkUsers));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось импортировать пакет из {} пользователей, повтор по одному: {}", chunk.size(), e.getMessage());
+            for (Integer index : chunk) {
+                importOne(users.get(index), index, results);
+            }
+            return;
+        }
+
+        for (Integer index : chunk) {
+            existenceIndex.onUserCreated(users.get(index).getId());
+            results[index] = BatchItemResult.created(index, users.get(index).getId());
+        }
+    }
+
+    private void importOne(User user, int index, BatchItemResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> userStorage.createAll(List.of(user)));
+            existenceIndex.onUserCreated(user.getId());
+            results[index] = BatchItemResult.created(index, user.getId());
+        } catch (RuntimeException e) {
+            user.setId(null);
+            results[index] = BatchItemResult.failed(index, "Ошибка сохранения: " + e.getMessage());
+        }
+    }
+
+    private String validateForImport(User user) {
+        if (user == null) {
+            return "Некорректная запись";
+        }
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<User> violation = violations.iterator().next();
+            return violation.getPropertyPath() + ": " + violation.getMessage();
+        }
+        return null;
+    }
+
+    private void setUserNameFromLoginIfEmpty(User user) {
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+            log.debug("Для пользователя {} установлено имя из логина", user.getLogin());
+        }
     }
 
     private void validateUserExists(Integer userId) {
-        if (!userStorage.existsById(userId)) {
+        if (!existenceIndex.userExists(userId)) {
             throw new NoSuchElementException("Пользователь с id " + userId + " не найден");
         }
     }
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Таймер на каждый публичный метод *DbStorage и Sharded*Storage. При filmorate.metrics.db.enabled=false аспект
+// не создаётся и вызовы хранилищ идут без перехвата
+@Aspect
+@Component
+@ConditionalOnProperty(name = "filmorate.metrics.db.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageMetricsAspect {
+    static final String METRIC = "filmorate.db.query";
+    private static final String[] ROWS = {"n/a", "0", "1", "2-10", "11-100", "101-1000", "1000+"};
+    private static final int NOT_APPLICABLE = 0;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Operation> operations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Шардированные хранилища создают делегаты по шардам сами, поэтому таймер ставится на них целиком
+    @Around("execution(public * ru.yandex.practicum.filmorate.storage..*DbStorage.*(..))"
+            + " || execution(public * ru.yandex.practicum.filmorate.storage..Sharded*Storage.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Operation operation = operations.get(method);
+        if (operation == null) {
+            operation = operations.computeIfAbsent(method, Operation::new);
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            operation.timer(false, NOT_APPLICABLE).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        operation.timer(true, rowsBucket(result)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private static int rowsBucket(Object result) {
+        int rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Map<?, ?> map) {
+            rows = map.size();
+        } else if (result instanceof Optional<?> optional) {
+            rows = optional.isPresent() ? 1 : 0;
+        } else {
+            return NOT_APPLICABLE;
+        }
+        if (rows <= 1) {
+            return rows + 1;
+        }
+        if (rows <= 10) {
+            return 3;
+        }
+        if (rows <= 100) {
+            return 4;
+        }
+        return rows <= 1000 ? 5 : 6;
+    }
+
+    // Таймеры создаются при первом появлении сочетания тегов, дальше вызов обходится без строк и упаковки
+    private final class Operation {
+        private final String storage;
+        private final String name;
+        private final AtomicReferenceArray<Timer> timers = new AtomicReferenceArray<>(ROWS.length * 2);
+
+        Operation(Method method) {
+            // ShardedLikeStorage и LikeDbStorage пишут в один таймер storage=like
+            this.storage = method.getDeclaringClass().getSimpleName()
+                    .replaceAll("^Sharded|(Db)?Storage$", "").toLowerCase();
+            this.name = method.getName();
+        }
+
+        Timer timer(boolean success, int rows) {
+            int index = (success ? ROWS.length : 0) + rows;
+            Timer timer = timers.get(index);
+            if (timer == null) {
+                timer = Timer.builder(METRIC)
+                        .description("Время выполнения запросов хранилищ к БД")
+                        .tag("storage", storage)
+                        .tag("operation", name)
+                        .tag("outcome", success ? "success" : "error")
+                        .tag("rows", ROWS[rows])
+                        .register(meterRegistry);
+                timers.set(index, timer);
+            }
+            return timer;
+        }
+    }
+}
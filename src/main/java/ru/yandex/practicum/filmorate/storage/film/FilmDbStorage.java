@@ -2,38 +2,60 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
-import ru.yandex.practicum.filmorate.model.AgeRating;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 @Repository
 @Qualifier("filmDbStorage")
 public class FilmDbStorage implements FilmStorage {
+    private static final int IN_CHUNK_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final OutboxStorage outboxStorage;
+    private final int fetchSize;
 
     @Autowired
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, ReferenceDataRegistry referenceDataRegistry,
+                         OutboxStorage outboxStorage, @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.outboxStorage = outboxStorage;
+        this.fetchSize = fetchSize;
     }
 
     @Override
     public Collection<Film> findAll() {
-        String sql = "SELECT f.*, r.code as rating_code FROM films f LEFT JOIN ratings r ON f.rating_id = r.rating_id";
+        String sql = "SELECT f.* FROM films f";
         List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm);
-        films.forEach(this::loadFilmGenres);
+        loadFilmGenres(films, true);
         return films;
     }
 
     @Override
+    @Transactional
     public Film create(Film film) {
         String sql = "INSERT INTO films (name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?)";
 
@@ -52,11 +74,55 @@ public class FilmDbStorage implements FilmStorage {
         film.setId(keyHolder.getKey().intValue());
 
         saveFilmGenres(film);
+        outboxStorage.append(OutboxEvent.of(OutboxEventType.FILM_CREATED, film.getId(), null, null));
 
         return film;
     }
 
     @Override
+    @Transactional
+    public List<Film> createAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        String sql = "INSERT INTO films (name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        Film film = films.get(i);
+                        stmt.setString(1, film.getName());
+                        stmt.setString(2, film.getDescription());
+                        stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        stmt.setInt(4, film.getDuration());
+                        stmt.setInt(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            films.get(i).setId(id.intValue());
+        }
+
+        insertFilmGenres(films);
+        outboxStorage.appendAll(films.stream()
+                .map(film -> OutboxEvent.of(OutboxEventType.FILM_CREATED, film.getId(), null, null))
+                .toList());
+
+        return films;
+    }
+
+    @Override
+    @Transactional
     public Film update(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, rating_id = ? WHERE film_id = ?";
         jdbcTemplate.update(sql,
@@ -68,23 +134,23 @@ public class FilmDbStorage implements FilmStorage {
                 film.getId());
 
         updateFilmGenres(film);
+        outboxStorage.append(OutboxEvent.of(OutboxEventType.FILM_UPDATED, film.getId(), null, null));
 
         return film;
     }
 
     @Override
     public Optional<Film> findById(Integer id) {
-        String sql = "SELECT f.*, r.code as rating_code FROM films f LEFT JOIN ratings r ON f.rating_id = r.rating_id WHERE film_id = ?";
+        String sql = "SELECT f.* FROM films f WHERE f.film_id = ?";
         List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, id);
 
         if (films.isEmpty()) {
             return Optional.empty();
         }
 
-        Film film = films.get(0);
-        loadFilmGenres(film);
+        loadFilmGenres(films);
 
-        return Optional.of(film);
+        return Optional.of(films.get(0));
     }
 
     @Override
@@ -94,6 +160,131 @@ public class FilmDbStorage implements FilmStorage {
         return count != null && count > 0;
     }
 
+    @Override
+    public void forEachId(IntConsumer consumer) {
+        String sql = "SELECT film_id FROM films";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(rs.getInt("film_id"));
+        });
+    }
+
+    @Override
+    public List<Film> findAllByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Integer, Film> filmsById = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            String sql = "SELECT f.* FROM films f " +
+                    "WHERE f.film_id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, this::mapRowToFilm, chunk.toArray())
+                    .forEach(film -> filmsById.put(film.getId(), film));
+        }
+
+        List<Film> films = new ArrayList<>(filmsById.size());
+        for (Integer id : ids) {
+            Film film = filmsById.get(id);
+            if (film != null) {
+                films.add(film);
+            }
+        }
+        loadFilmGenres(films);
+        return films;
+    }
+
+    @Override
+    public List<Film> findPage(Integer afterId, int limit) {
+        String sql = "SELECT f.* FROM films f " +
+                "WHERE f.film_id > ? ORDER BY f.film_id LIMIT ?";
+        List<Film> films = jdbcTemplate.query(sql, this::mapRowToFilm, afterId != null ? afterId : 0, limit);
+        loadFilmGenres(films);
+        return films;
+    }
+
+    @Override
+    public List<Film> findTopByLikes(int limit) {
+        return findTopByLikes(limit, null, null);
+    }
+
+    @Override
+    public List<Film> findTopByLikes(int limit, Integer genreId, Integer year) {
+        StringBuilder sql = new StringBuilder("SELECT f.* FROM films f WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (genreId != null) {
+            sql.append(" AND f.film_id IN (SELECT fg.film_id FROM film_genres fg WHERE fg.genre_id = ?)");
+            params.add(genreId);
+        }
+        if (year != null) {
+            // Диапазон по дате, а не EXTRACT(YEAR ...), чтобы работал индекс по release_date
+            sql.append(" AND f.release_date >= ? AND f.release_date < ?");
+            params.add(LocalDate.of(year, 1, 1));
+            params.add(LocalDate.of(year + 1, 1, 1));
+        }
+        sql.append(" ORDER BY f.likes_count DESC, f.film_id LIMIT ?");
+        params.add(limit);
+        List<Film> films = jdbcTemplate.query(sql.toString(), this::mapRowToFilm, params.toArray());
+        loadFilmGenres(films);
+        return films;
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        // Жанры приходят в том же курсоре: строки одного фильма идут подряд, в памяти держится только текущий фильм
+        String sql = "SELECT f.*, fg.genre_id FROM films f " +
+                "LEFT JOIN film_genres fg ON fg.film_id = f.film_id " +
+                "ORDER BY f.film_id, fg.genre_id";
+        Film[] current = new Film[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            return stmt;
+        }, rs -> {
+            int filmId = rs.getInt("film_id");
+            if (current[0] == null || current[0].getId() != filmId) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = mapRowToFilm(rs, 0);
+            }
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current[0].addGenre(referenceDataRegistry.resolveGenre(genreId));
+            }
+        });
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCounts() {
+        // Денормализованный счётчик читается по индексу idx_films_likes_count, без агрегации по likes
+        String sql = "SELECT film_id, likes_count FROM films";
+        Map<Integer, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+        });
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCounts(List<Integer> ids) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            String sql = "SELECT film_id, likes_count FROM films WHERE film_id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                counts.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+            }, chunk.toArray());
+        }
+        return counts;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
     private Film mapRowToFilm(ResultSet rs, int rowNum) throws SQLException {
         Film film = new Film();
         film.setId(rs.getInt("film_id"));
@@ -102,10 +293,9 @@ public class FilmDbStorage implements FilmStorage {
         film.setReleaseDate(rs.getDate("release_date").toLocalDate());
         film.setDuration(rs.getInt("duration"));
 
-        Integer ratingId = rs.getInt("rating_id");
-        String ratingCode = rs.getString("rating_code");
-        if (ratingCode != null) {
-            film.setMpa(AgeRating.fromId(ratingId));
+        int ratingId = rs.getInt("rating_id");
+        if (!rs.wasNull()) {
+            film.setMpa(referenceDataRegistry.resolveMpa(ratingId));
         }
 
         return film;
@@ -115,30 +305,64 @@ public class FilmDbStorage implements FilmStorage {
         String deleteSql = "DELETE FROM film_genres WHERE film_id = ?";
         jdbcTemplate.update(deleteSql, film.getId());
 
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            String insertSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-            for (Genre genre : film.getGenres()) {
-                jdbcTemplate.update(insertSql, film.getId(), genre.getId());
+        insertFilmGenres(List.of(film));
+    }
+
+    private void insertFilmGenres(List<Film> films) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() != null) {
+                for (Genre genre : film.getGenres()) {
+                    rows.add(new Object[]{film.getId(), genre.getId()});
+                }
             }
         }
+
+        if (!rows.isEmpty()) {
+            String insertSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+            jdbcTemplate.batchUpdate(insertSql, rows);
+        }
     }
 
     private void updateFilmGenres(Film film) {
         saveFilmGenres(film);
     }
 
-    private void loadFilmGenres(Film film) {
-        String sql = "SELECT g.genre_id, g.name FROM film_genres fg " +
-                "JOIN genres g ON fg.genre_id = g.genre_id " +
-                "WHERE fg.film_id = ?";
+    private void loadFilmGenres(List<Film> films) {
+        loadFilmGenres(films, false);
+    }
+
+    private void loadFilmGenres(List<Film> films, boolean wholeTable) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Map<Integer, Film> filmsById = new HashMap<>(films.size() * 2);
+        for (Film film : films) {
+            film.getGenres().clear();
+            filmsById.put(film.getId(), film);
+        }
 
-        List<Genre> genres = jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Integer genreId = rs.getInt("genre_id");
-            String genreName = rs.getString("name");
-            return new Genre(genreId, genreName);
-        }, film.getId());
+        String sql = "SELECT fg.film_id, fg.genre_id FROM film_genres fg ";
+        if (wholeTable) {
+            jdbcTemplate.query(sql, rs -> {
+                attachGenre(filmsById, rs);
+            });
+            return;
+        }
 
-        film.getGenres().clear();
-        film.getGenres().addAll(genres);
+        List<Integer> ids = new ArrayList<>(filmsById.keySet());
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            jdbcTemplate.query(sql + "WHERE fg.film_id IN (" + placeholders(chunk.size()) + ")", rs -> {
+                attachGenre(filmsById, rs);
+            }, chunk.toArray());
+        }
+    }
+
+    private void attachGenre(Map<Integer, Film> filmsById, ResultSet rs) throws SQLException {
+        Film film = filmsById.get(rs.getInt("film_id"));
+        if (film != null) {
+            film.addGenre(referenceDataRegistry.resolveGenre(rs.getInt("genre_id")));
+        }
     }
 }
\ No newline at end of file
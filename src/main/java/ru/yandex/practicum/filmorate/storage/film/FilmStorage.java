@@ -2,16 +2,38 @@ package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public interface FilmStorage {
     Collection<Film> findAll();
 
     Film create(Film film);
 
+    List<Film> createAll(List<Film> films);
+
     Film update(Film film);
 
     Optional<Film> findById(Integer id);
 
     boolean existsById(Integer id);
+
+    void forEachId(IntConsumer consumer);
+
+    List<Film> findAllByIds(List<Integer> ids);
+
+    List<Film> findPage(Integer afterId, int limit);
+
+    List<Film> findTopByLikes(int limit);
+
+    List<Film> findTopByLikes(int limit, Integer genreId, Integer year);
+
+    void streamAll(Consumer<Film> consumer);
+
+    Map<Integer, Integer> getLikesCounts();
+
+    Map<Integer, Integer> getLikesCounts(List<Integer> ids);
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+
+@FunctionalInterface
+public interface FriendshipConsumer {
+    void accept(int userId, int friendId, FriendshipStatus status);
+}
@@ -1,9 +1,15 @@
 package ru.yandex.practicum.filmorate.storage.friendship;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxStorage;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
@@ -15,28 +21,41 @@ import java.util.Set;
 public class FriendshipDbStorage implements FriendshipStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final OutboxStorage outboxStorage;
+    private final int fetchSize;
 
     @Autowired
-    public FriendshipDbStorage(JdbcTemplate jdbcTemplate) {
+    public FriendshipDbStorage(JdbcTemplate jdbcTemplate, OutboxStorage outboxStorage,
+                               @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.outboxStorage = outboxStorage;
+        this.fetchSize = fetchSize;
     }
 
     @Override
+    @Transactional
     public void addFriend(Integer userId, Integer friendId, FriendshipStatus status) {
         String sql = "INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, ?)";
         jdbcTemplate.update(sql, userId, friendId, status.toString());
+        publish(OutboxEventType.FRIEND_ADDED, userId, friendId, status);
     }
 
     @Override
+    @Transactional
     public void removeFriend(Integer userId, Integer friendId) {
         String sql = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        if (jdbcTemplate.update(sql, userId, friendId) > 0) {
+            publish(OutboxEventType.FRIEND_REMOVED, userId, friendId, null);
+        }
     }
 
     @Override
+    @Transactional
     public void updateFriendshipStatus(Integer userId, Integer friendId, FriendshipStatus status) {
         String sql = "UPDATE friendships SET status = ? WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, status.toString(), userId, friendId);
+        if (jdbcTemplate.update(sql, status.toString(), userId, friendId) > 0) {
+            publish(OutboxEventType.FRIENDSHIP_STATUS_CHANGED, userId, friendId, status);
+        }
     }
 
     @Override
@@ -75,6 +94,22 @@ public class FriendshipDbStorage implements FriendshipStorage {
         return new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("user_id"), userId));
     }
 
+    @Override
+    public void forEachFriendship(FriendshipConsumer consumer) {
+        String sql = "SELECT user_id, friend_id, status FROM friendships ORDER BY user_id, friend_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            return stmt;
+        }, rs -> {
+            consumer.accept(rs.getInt("user_id"), rs.getInt("friend_id"), FriendshipStatus.valueOf(rs.getString("status")));
+        });
+    }
+
+    private void publish(OutboxEventType type, int userId, int friendId, FriendshipStatus status) {
+        outboxStorage.append(OutboxEvent.of(type, userId, friendId, status != null ? status.name() : null));
+    }
+
     private Map<Integer, FriendshipStatus> mapRowToFriends(ResultSet rs) throws SQLException {
         Map<Integer, FriendshipStatus> friends = new HashMap<>();
         while (rs.next()) {
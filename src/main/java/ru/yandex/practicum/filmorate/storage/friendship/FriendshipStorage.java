@@ -20,4 +20,6 @@ public interface FriendshipStorage {
     Set<Integer> getFriendIds(Integer userId);
 
     Set<Integer> getIncomingFriendRequests(Integer userId);
+
+    void forEachFriendship(FriendshipConsumer consumer);
 }
\ No newline at end of file
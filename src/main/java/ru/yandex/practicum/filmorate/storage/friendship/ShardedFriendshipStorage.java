@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.storage.shard.JdbcShards;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Заявка хранится в шарде отправителя (user_id); входящие заявки собираются со всех шардов.
+// Делегат шарда пишет событие в outbox того же шарда, обе записи идут в одной транзакции шарда
+@Repository
+@Primary
+@ConditionalOnProperty(name = "filmorate.sharding.enabled", havingValue = "true")
+public class ShardedFriendshipStorage implements FriendshipStorage {
+    private static final Comparator<FriendshipRow> FRIENDSHIP_ORDER = Comparator
+            .comparingInt(FriendshipRow::userId)
+            .thenComparingInt(FriendshipRow::friendId);
+
+    private final JdbcShards shards;
+    private final List<FriendshipDbStorage> delegates;
+    private final int fetchSize;
+
+    @Autowired
+    public ShardedFriendshipStorage(JdbcShards shards, @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
+        this.shards = shards;
+        this.fetchSize = fetchSize;
+        this.delegates = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            delegates.add(new FriendshipDbStorage(shards.get(shard), shards.outbox(shard), fetchSize));
+        }
+    }
+
+    @Override
+    public void addFriend(Integer userId, Integer friendId, FriendshipStatus status) {
+        inSenderShard(userId, delegate -> delegate.addFriend(userId, friendId, status));
+    }
+
+    @Override
+    public void removeFriend(Integer userId, Integer friendId) {
+        inSenderShard(userId, delegate -> delegate.removeFriend(userId, friendId));
+    }
+
+    @Override
+    public void updateFriendshipStatus(Integer userId, Integer friendId, FriendshipStatus status) {
+        inSenderShard(userId, delegate -> delegate.updateFriendshipStatus(userId, friendId, status));
+    }
+
+    @Override
+    public boolean hasFriend(Integer userId, Integer friendId) {
+        return forUser(userId).hasFriend(userId, friendId);
+    }
+
+    @Override
+    public FriendshipStatus getFriendshipStatus(Integer userId, Integer friendId) {
+        return forUser(userId).getFriendshipStatus(userId, friendId);
+    }
+
+    @Override
+    public Map<Integer, FriendshipStatus> getFriends(Integer userId) {
+        return forUser(userId).getFriends(userId);
+    }
+
+    @Override
+    public Set<Integer> getFriendIds(Integer userId) {
+        return forUser(userId).getFriendIds(userId);
+    }
+
+    @Override
+    public Set<Integer> getIncomingFriendRequests(Integer userId) {
+        Set<Integer> requests = new HashSet<>();
+        shards.scatter(shard -> delegates.get(shard).getIncomingFriendRequests(userId)).forEach(requests::addAll);
+        return requests;
+    }
+
+    // Курсоры шардов сливаются по user_id, friend_id: порядок тот же, что у FriendshipDbStorage
+    @Override
+    public void forEachFriendship(FriendshipConsumer consumer) {
+        String sql = "SELECT user_id, friend_id, status FROM friendships ORDER BY user_id, friend_id";
+        shards.mergeSorted(sql, fetchSize,
+                (rs, rowNum) -> new FriendshipRow(rs.getInt("user_id"), rs.getInt("friend_id"),
+                        FriendshipStatus.valueOf(rs.getString("status"))),
+                FRIENDSHIP_ORDER, row -> consumer.accept(row.userId(), row.friendId(), row.status()));
+    }
+
+    private FriendshipDbStorage forUser(Integer userId) {
+        return delegates.get(shards.shardOf(userId));
+    }
+
+    // Делегаты созданы вручную и не проксируются, поэтому их @Transactional здесь не действует
+    private void inSenderShard(Integer userId, Consumer<FriendshipDbStorage> write) {
+        int shard = shards.shardOf(userId);
+        shards.transactions(shard).executeWithoutResult(status -> write.accept(delegates.get(shard)));
+    }
+
+    private record FriendshipRow(int userId, int friendId, FriendshipStatus status) {
+    }
+}
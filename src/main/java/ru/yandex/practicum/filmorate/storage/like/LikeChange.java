@@ -0,0 +1,6 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import java.time.Instant;
+
+record LikeChange(int filmId, int userId, boolean liked, Instant changedAt) {
+}
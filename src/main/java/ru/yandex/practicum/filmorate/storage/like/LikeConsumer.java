@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import java.time.Instant;
+
+@FunctionalInterface
+public interface LikeConsumer {
+    void accept(int filmId, int userId, Instant likedAt);
+}
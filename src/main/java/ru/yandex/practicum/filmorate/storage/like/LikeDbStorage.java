@@ -1,31 +1,72 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxStorage;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Repository
-public class LikeDbStorage implements LikeStorage {
+public class LikeDbStorage implements LikeStorage, LikesCountRepairer {
 
     private final JdbcTemplate jdbcTemplate;
+    private final OutboxStorage outboxStorage;
+    private final int fetchSize;
 
     @Autowired
-    public LikeDbStorage(JdbcTemplate jdbcTemplate) {
+    public LikeDbStorage(JdbcTemplate jdbcTemplate, OutboxStorage outboxStorage,
+                         @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.outboxStorage = outboxStorage;
+        this.fetchSize = fetchSize;
     }
 
     @Override
-    public void addLike(Integer filmId, Integer userId) {
-        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, filmId, userId);
+    @Transactional
+    public boolean addLike(Integer filmId, Integer userId) {
+        if (!insertLike(jdbcTemplate, filmId, userId)) {
+            return false;
+        }
+        adjustLikesCount(filmId, 1);
+        outboxStorage.append(OutboxEvent.of(OutboxEventType.LIKE_ADDED, filmId, userId, null));
+        return true;
     }
 
     @Override
-    public void removeLike(Integer filmId, Integer userId) {
+    @Transactional
+    public boolean removeLike(Integer filmId, Integer userId) {
         String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+        if (jdbcTemplate.update(sql, filmId, userId) == 0) {
+            return false;
+        }
+        adjustLikesCount(filmId, -1);
+        outboxStorage.append(OutboxEvent.of(OutboxEventType.LIKE_REMOVED, filmId, userId, null));
+        return true;
+    }
+
+    // Повторный лайк, в том числе от параллельного запроса, не вставляется и не меняет счётчик
+    static boolean insertLike(JdbcTemplate template, int filmId, int userId) {
+        String sql = "INSERT INTO likes (film_id, user_id) " +
+                "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+        try {
+            return template.update(sql, filmId, userId, filmId, userId) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
     }
 
     @Override
@@ -47,4 +88,97 @@ public class LikeDbStorage implements LikeStorage {
         String sql = "SELECT user_id FROM likes WHERE film_id = ?";
         return new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("user_id"), filmId));
     }
-}
\ No newline at end of file
+
+    @Override
+    public Instant getLikeTime(Integer filmId, Integer userId) {
+        String sql = "SELECT created_at FROM likes WHERE film_id = ? AND user_id = ?";
+        List<Instant> times = jdbcTemplate.query(sql,
+                (rs, rowNum) -> rs.getTimestamp("created_at").toInstant(), filmId, userId);
+        return times.isEmpty() ? null : times.get(0);
+    }
+
+    @Override
+    public void forEachLike(LikeConsumer consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes ORDER BY film_id, user_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            return stmt;
+        }, rs -> {
+            consumer.accept(rs.getInt("film_id"), rs.getInt("user_id"), rs.getTimestamp("created_at").toInstant());
+        });
+    }
+
+    @Override
+    public void forEachLikeSince(Instant since, LikeConsumer consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes WHERE created_at >= ?";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            stmt.setTimestamp(1, Timestamp.from(since));
+            return stmt;
+        }, rs -> {
+            consumer.accept(rs.getInt("film_id"), rs.getInt("user_id"), rs.getTimestamp("created_at").toInstant());
+        });
+    }
+
+    // Пересчитывает films.likes_count по таблице likes диапазонами film_id, каждый диапазон в своей транзакции
+    @Override
+    public int repairLikesCounts(int batchSize) {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(film_id), 0) FROM films", Integer.class);
+        String sql = "UPDATE films f SET likes_count = " +
+                "(SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id) " +
+                "WHERE f.film_id > ? AND f.film_id <= ? " +
+                "AND f.likes_count <> (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)";
+        int repaired = 0;
+        for (int from = 0; maxId != null && from < maxId; from += batchSize) {
+            repaired += jdbcTemplate.update(sql, from, from + batchSize);
+        }
+        return repaired;
+    }
+
+    void applyChanges(List<LikeChange> changes) {
+        List<LikeChange> added = changes.stream().filter(LikeChange::liked).toList();
+        List<LikeChange> removed = changes.stream().filter(change -> !change.liked()).toList();
+        Map<Integer, Integer> deltas = new HashMap<>();
+        List<OutboxEvent> events = new ArrayList<>();
+        if (!added.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("INSERT INTO likes (film_id, user_id, created_at) " +
+                    "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)", toArgs(added));
+            collectDeltas(added, counts, 1, deltas, events);
+        }
+        if (!removed.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("DELETE FROM likes WHERE film_id = ? AND user_id = ?",
+                    removed.stream().map(change -> new Object[]{change.filmId(), change.userId()}).toList());
+            collectDeltas(removed, counts, -1, deltas, events);
+        }
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?",
+                    deltas.entrySet().stream().map(entry -> new Object[]{entry.getValue(), entry.getKey()}).toList());
+        }
+        outboxStorage.appendAll(events);
+    }
+
+    private void adjustLikesCount(Integer filmId, int delta) {
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?", delta, filmId);
+    }
+
+    private static List<Object[]> toArgs(List<LikeChange> added) {
+        return added.stream()
+                .map(change -> new Object[]{change.filmId(), change.userId(), Timestamp.from(change.changedAt()),
+                        change.filmId(), change.userId()})
+                .toList();
+    }
+
+    private static void collectDeltas(List<LikeChange> changes, int[] counts, int delta, Map<Integer, Integer> deltas,
+                                      List<OutboxEvent> events) {
+        OutboxEventType type = delta > 0 ? OutboxEventType.LIKE_ADDED : OutboxEventType.LIKE_REMOVED;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                LikeChange change = changes.get(i);
+                deltas.merge(change.filmId(), delta, Integer::sum);
+                events.add(OutboxEvent.of(type, change.filmId(), change.userId(), null));
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import java.time.Instant;
 import java.util.Set;
 
 public interface LikeStorage {
-    void addLike(Integer filmId, Integer userId);
+    // Возвращают true, только если лайк действительно появился или исчез
+    boolean addLike(Integer filmId, Integer userId);
 
-    void removeLike(Integer filmId, Integer userId);
+    boolean removeLike(Integer filmId, Integer userId);
 
     boolean hasLike(Integer filmId, Integer userId);
 
     int getLikesCount(Integer filmId);
 
     Set<Integer> getLikedUserIds(Integer filmId);
+
+    Instant getLikeTime(Integer filmId, Integer userId);
+
+    void forEachLike(LikeConsumer consumer);
+
+    void forEachLikeSince(Instant since, LikeConsumer consumer);
 }
\ No newline at end of file
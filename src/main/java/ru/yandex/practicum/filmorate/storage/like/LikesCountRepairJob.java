@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class LikesCountRepairJob {
+    private final LikesCountRepairer likeStorage;
+    private final int batchSize;
+
+    @Autowired
+    public LikesCountRepairJob(LikesCountRepairer likeStorage,
+                               @Value("${filmorate.likes.count-repair-batch-size:1000}") int batchSize) {
+        this.likeStorage = likeStorage;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.likes.count-repair-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.likes.count-repair-interval-ms:3600000}")
+    public void repair() {
+        int repaired = likeStorage.repairLikesCounts(batchSize);
+        if (repaired > 0) {
+            log.warn("Исправлены счётчики лайков у фильмов: {}", repaired);
+        } else {
+            log.debug("Счётчики лайков совпадают с таблицей likes");
+        }
+    }
+}
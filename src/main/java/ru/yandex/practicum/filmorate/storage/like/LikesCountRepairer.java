@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+public interface LikesCountRepairer {
+    int repairLikesCounts(int batchSize);
+}
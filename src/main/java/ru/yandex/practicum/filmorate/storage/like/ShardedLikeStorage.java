@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.shard.JdbcShards;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Лайки разложены по шардам по film_id, событие outbox пишется в транзакции шарда. films.likes_count остаётся
+// в основной БД и обновляется после неё, расхождения счётчика при сбоях исправляет LikesCountRepairJob
+@Repository
+@Primary
+@ConditionalOnProperty(name = "filmorate.sharding.enabled", havingValue = "true")
+public class ShardedLikeStorage implements LikeStorage, LikesCountRepairer {
+    private static final Comparator<LikeRow> LIKE_ORDER = Comparator
+            .comparingInt(LikeRow::filmId)
+            .thenComparingInt(LikeRow::userId);
+
+    private final JdbcShards shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    @Autowired
+    public ShardedLikeStorage(JdbcShards shards, JdbcTemplate jdbcTemplate,
+                              @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
+        this.shards = shards;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        int shard = shards.shardOf(filmId);
+        Boolean added = shards.transactions(shard).execute(status -> {
+            if (!LikeDbStorage.insertLike(shards.get(shard), filmId, userId)) {
+                return false;
+            }
+            shards.outbox(shard).append(OutboxEvent.of(OutboxEventType.LIKE_ADDED, filmId, userId, null));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(added)) {
+            return false;
+        }
+        adjustLikesCount(filmId, 1);
+        return true;
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+        int shard = shards.shardOf(filmId);
+        Boolean removed = shards.transactions(shard).execute(status -> {
+            if (shards.get(shard).update(sql, filmId, userId) == 0) {
+                return false;
+            }
+            shards.outbox(shard).append(OutboxEvent.of(OutboxEventType.LIKE_REMOVED, filmId, userId, null));
+            return true;
+        });
+        if (!Boolean.TRUE.equals(removed)) {
+            return false;
+        }
+        adjustLikesCount(filmId, -1);
+        return true;
+    }
+
+    @Override
+    public boolean hasLike(Integer filmId, Integer userId) {
+        String sql = "SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?";
+        Integer count = shards.forKey(filmId).queryForObject(sql, Integer.class, filmId, userId);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public int getLikesCount(Integer filmId) {
+        String sql = "SELECT COUNT(*) FROM likes WHERE film_id = ?";
+        Integer count = shards.forKey(filmId).queryForObject(sql, Integer.class, filmId);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public Set<Integer> getLikedUserIds(Integer filmId) {
+        String sql = "SELECT user_id FROM likes WHERE film_id = ?";
+        return new HashSet<>(shards.forKey(filmId).query(sql, (rs, rowNum) -> rs.getInt("user_id"), filmId));
+    }
+
+    @Override
+    public Instant getLikeTime(Integer filmId, Integer userId) {
+        String sql = "SELECT created_at FROM likes WHERE film_id = ? AND user_id = ?";
+        List<Instant> times = shards.forKey(filmId).query(sql,
+                (rs, rowNum) -> rs.getTimestamp("created_at").toInstant(), filmId, userId);
+        return times.isEmpty() ? null : times.get(0);
+    }
+
+    // Курсоры шардов сливаются по film_id, user_id: порядок тот же, что у LikeDbStorage
+    @Override
+    public void forEachLike(LikeConsumer consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes ORDER BY film_id, user_id";
+        shards.mergeSorted(sql, fetchSize,
+                (rs, rowNum) -> new LikeRow(rs.getInt("film_id"), rs.getInt("user_id"), rs.getTimestamp("created_at").toInstant()),
+                LIKE_ORDER, like -> consumer.accept(like.filmId(), like.userId(), like.likedAt()));
+    }
+
+    @Override
+    public void forEachLikeSince(Instant since, LikeConsumer consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes WHERE created_at >= ?";
+        for (int shard = 0; shard < shards.size(); shard++) {
+            shards.get(shard).query(connection -> {
+                PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                stmt.setFetchSize(fetchSize);
+                stmt.setTimestamp(1, Timestamp.from(since));
+                return stmt;
+            }, rs -> {
+                consumer.accept(rs.getInt("film_id"), rs.getInt("user_id"), rs.getTimestamp("created_at").toInstant());
+            });
+        }
+    }
+
+    // Диапазоны film_id обходятся как в LikeDbStorage. Запись условная: если addLike изменил счётчик после
+    // чтения, строка пропускается до следующего запуска, а не затирается устаревшим значением
+    @Override
+    public int repairLikesCounts(int batchSize) {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(film_id), 0) FROM films", Integer.class);
+        int repaired = 0;
+        for (int from = 1; maxId != null && from <= maxId; from += batchSize) {
+            repaired += repairRange(from, from + batchSize - 1);
+        }
+        return repaired;
+    }
+
+    private int repairRange(int fromId, int toId) {
+        Map<Integer, Integer> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, likes_count FROM films WHERE film_id BETWEEN ? AND ?", rs -> {
+            stored.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+        }, fromId, toId);
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, Integer> actual = countByFilm(fromId, toId);
+        List<Object[]> changes = new ArrayList<>();
+        stored.forEach((filmId, count) -> {
+            int expected = actual.getOrDefault(filmId, 0);
+            if (count != expected) {
+                changes.add(new Object[]{expected, filmId, count});
+            }
+        });
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE films SET likes_count = ? WHERE film_id = ? AND likes_count = ?", changes);
+        return (int) Arrays.stream(updated).filter(count -> count > 0).count();
+    }
+
+    private Map<Integer, Integer> countByFilm(int fromId, int toId) {
+        String sql = "SELECT film_id, COUNT(*) AS likes_count FROM likes WHERE film_id BETWEEN ? AND ? GROUP BY film_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        shards.scatter(shard -> {
+            Map<Integer, Integer> shardCounts = new HashMap<>();
+            shards.get(shard).query(sql, rs -> {
+                shardCounts.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+            }, fromId, toId);
+            return shardCounts;
+        }).forEach(counts::putAll);
+        return counts;
+    }
+
+    private void adjustLikesCount(Integer filmId, int delta) {
+        jdbcTemplate.update("UPDATE films SET likes_count = likes_count + ? WHERE film_id = ?", delta, filmId);
+    }
+
+    private record LikeRow(int filmId, int userId, Instant likedAt) {
+    }
+}
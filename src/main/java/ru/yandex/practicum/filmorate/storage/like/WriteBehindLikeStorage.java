@@ -0,0 +1,322 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Repository
+@Primary
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class WriteBehindLikeStorage implements LikeStorage {
+    private final LikeDbStorage delegate;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int flushThreshold;
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "likes-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Всё состояние ниже защищено stateLock
+    private Map<Long, LikeChange> pending = new LinkedHashMap<>();
+    private Map<Long, LikeChange> inFlight = Map.of();
+    private final Map<Integer, Integer> filmDeltas = new HashMap<>();
+    private long flushedBatches;
+
+    @Autowired
+    public WriteBehindLikeStorage(LikeDbStorage delegate, TransactionTemplate transactionTemplate,
+                                  @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                                  @Value("${filmorate.likes.write-behind.flush-threshold:500}") int flushThreshold) {
+        this.delegate = delegate;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.flushThreshold = flushThreshold;
+    }
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        return record(filmId, userId, true);
+    }
+
+    @Override
+    public boolean removeLike(Integer filmId, Integer userId) {
+        return record(filmId, userId, false);
+    }
+
+    @Override
+    public boolean hasLike(Integer filmId, Integer userId) {
+        LikeChange change = pendingState(key(filmId, userId));
+        return change != null ? change.liked() : delegate.hasLike(filmId, userId);
+    }
+
+    @Override
+    public int getLikesCount(Integer filmId) {
+        int delta;
+        stateLock.lock();
+        try {
+            delta = filmDeltas.getOrDefault(filmId, 0);
+        } finally {
+            stateLock.unlock();
+        }
+        return delegate.getLikesCount(filmId) + delta;
+    }
+
+    @Override
+    public Set<Integer> getLikedUserIds(Integer filmId) {
+        Set<Integer> userIds = delegate.getLikedUserIds(filmId);
+        stateLock.lock();
+        try {
+            applyOverlay(inFlight, filmId, userIds);
+            applyOverlay(pending, filmId, userIds);
+        } finally {
+            stateLock.unlock();
+        }
+        return userIds;
+    }
+
+    // Для ещё не записанного лайка возвращается время его постановки, которое затем попадёт в БД
+    @Override
+    public Instant getLikeTime(Integer filmId, Integer userId) {
+        LikeChange change = pendingState(key(filmId, userId));
+        if (change != null) {
+            return change.liked() ? change.changedAt() : null;
+        }
+        return delegate.getLikeTime(filmId, userId);
+    }
+
+    @Override
+    public void forEachLike(LikeConsumer consumer) {
+        delegate.forEachLike(consumer);
+    }
+
+    @Override
+    public void forEachLikeSince(Instant since, LikeConsumer consumer) {
+        delegate.forEachLikeSince(since, consumer);
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}",
+            fixedDelayString = "${filmorate.likes.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать накопленные лайки, повтор при следующем сбросе", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+        log.info("Очередь лайков сброшена при остановке");
+    }
+
+    public int getPendingCount() {
+        stateLock.lock();
+        try {
+            return pending.size() + inFlight.size();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, LikeChange> batch;
+            stateLock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                inFlight = batch;
+                pending = new LinkedHashMap<>();
+            } finally {
+                stateLock.unlock();
+            }
+
+            List<LikeChange> changes = new ArrayList<>(batch.values());
+            try {
+                transactionTemplate.executeWithoutResult(status -> delegate.applyChanges(changes));
+            } catch (RuntimeException e) {
+                restore(batch);
+                throw e;
+            }
+            completed(batch);
+            log.debug("Записано изменений лайков: {}", changes.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean record(int filmId, int userId, boolean liked) {
+        // Обратное давление: при заполненной очереди запрос сам сбрасывает её в БД
+        while (pendingSize() >= capacity) {
+            flush();
+        }
+
+        long key = key(filmId, userId);
+        Boolean stored = null;
+        int size;
+        while (true) {
+            long generation;
+            stateLock.lock();
+            try {
+                generation = flushedBatches;
+                LikeChange previous = pending.get(key);
+                LikeChange buffered = previous != null ? previous : inFlight.get(key);
+                if (buffered != null || stored != null) {
+                    boolean current = buffered != null ? buffered.liked() : stored;
+                    if (current == liked) {
+                        return false;
+                    }
+                    if (previous != null) {
+                        // Лайк и последующий снятый лайк взаимно уничтожаются и не доходят до БД
+                        pending.remove(key);
+                        addDelta(filmId, -contribution(previous.liked()));
+                    } else {
+                        // Точность как у TIMESTAMP в БД, чтобы время не менялось после сброса
+                        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+                        pending.put(key, new LikeChange(filmId, userId, liked, now));
+                        addDelta(filmId, contribution(liked));
+                    }
+                    size = pending.size();
+                    break;
+                }
+            } finally {
+                stateLock.unlock();
+            }
+            // Состояние в БД читается без блокировки; если за это время сбросился пакет, чтение повторяется
+            boolean fromDb = delegate.hasLike(filmId, userId);
+            stateLock.lock();
+            try {
+                if (flushedBatches == generation) {
+                    stored = fromDb;
+                }
+            } finally {
+                stateLock.unlock();
+            }
+        }
+
+        if (size >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                scheduledFlush();
+            });
+        }
+        return true;
+    }
+
+    private void restore(Map<Long, LikeChange> batch) {
+        stateLock.lock();
+        try {
+            Map<Long, LikeChange> newer = pending;
+            pending = new LinkedHashMap<>(batch);
+            for (Map.Entry<Long, LikeChange> entry : newer.entrySet()) {
+                Long key = entry.getKey();
+                LikeChange previous = pending.get(key);
+                boolean liked = entry.getValue().liked();
+                if (previous == null) {
+                    pending.put(key, entry.getValue());
+                } else if (previous.liked() != liked) {
+                    pending.remove(key);
+                    addDelta(filmId(key), -contribution(previous.liked()) - contribution(liked));
+                } else {
+                    addDelta(filmId(key), -contribution(liked));
+                }
+            }
+            inFlight = Map.of();
+            flushedBatches++;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    // Между фиксацией транзакции и этим вызовом счётчик может кратковременно учесть изменение дважды
+    private void completed(Map<Long, LikeChange> batch) {
+        stateLock.lock();
+        try {
+            batch.values().forEach(change -> addDelta(change.filmId(), -contribution(change.liked())));
+            inFlight = Map.of();
+            flushedBatches++;
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private LikeChange pendingState(long key) {
+        stateLock.lock();
+        try {
+            LikeChange change = pending.get(key);
+            return change != null ? change : inFlight.get(key);
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private int pendingSize() {
+        stateLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            stateLock.unlock();
+        }
+    }
+
+    private void addDelta(int filmId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        filmDeltas.merge(filmId, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    private static void applyOverlay(Map<Long, LikeChange> changes, int filmId, Set<Integer> userIds) {
+        changes.values().forEach(change -> {
+            if (change.filmId() == filmId) {
+                if (change.liked()) {
+                    userIds.add(change.userId());
+                } else {
+                    userIds.remove(change.userId());
+                }
+            }
+        });
+    }
+
+    private static int contribution(boolean liked) {
+        return liked ? 1 : -1;
+    }
+
+    private static long key(int filmId, int userId) {
+        return ((long) filmId << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    private static int filmId(long key) {
+        return (int) (key >>> 32);
+    }
+}
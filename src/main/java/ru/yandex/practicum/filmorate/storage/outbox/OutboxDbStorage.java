@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Запись идёт через JdbcTemplate своей БД (основной или шарда) и поэтому попадает в транзакцию вызывающего хранилища
+@Repository
+public class OutboxDbStorage implements OutboxStorage {
+    private static final String INSERT = "INSERT INTO outbox (event_type, entity_id, related_id, payload) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OutboxDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void append(OutboxEvent event) {
+        jdbcTemplate.update(INSERT, event.type().name(), event.entityId(), event.relatedId(), event.payload());
+    }
+
+    @Override
+    public void appendAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, events.stream()
+                .map(event -> new Object[]{event.type().name(), event.entityId(), event.relatedId(), event.payload()})
+                .toList());
+    }
+
+    @Override
+    public List<OutboxEvent> findAfter(long afterId, int limit) {
+        String sql = "SELECT * FROM outbox WHERE event_id > ? ORDER BY event_id LIMIT ?";
+        return jdbcTemplate.query(sql, this::mapRowToEvent, afterId, limit);
+    }
+
+    @Override
+    public long getHeadId() {
+        Long headId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(event_id), 0) FROM outbox", Long.class);
+        return headId != null ? headId : 0;
+    }
+
+    @Override
+    public long getOffset(String subscriber) {
+        String sql = "SELECT last_event_id FROM outbox_offsets WHERE subscriber = ?";
+        List<Long> offsets = jdbcTemplate.queryForList(sql, Long.class, subscriber);
+        return offsets.isEmpty() ? 0 : offsets.get(0);
+    }
+
+    @Override
+    public Map<String, Long> getOffsets() {
+        Map<String, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT subscriber, last_event_id FROM outbox_offsets", rs -> {
+            offsets.put(rs.getString("subscriber"), rs.getLong("last_event_id"));
+        });
+        return offsets;
+    }
+
+    @Override
+    public void saveOffset(String subscriber, long eventId) {
+        String sql = "MERGE INTO outbox_offsets (subscriber, last_event_id) KEY (subscriber) VALUES (?, ?)";
+        jdbcTemplate.update(sql, subscriber, eventId);
+    }
+
+    @Override
+    public List<OutboxEvent> findGapEvents(String subscriber) {
+        String sql = "SELECT o.* FROM outbox_gaps g JOIN outbox o ON o.event_id = g.event_id " +
+                "WHERE g.subscriber = ? ORDER BY o.event_id";
+        return jdbcTemplate.query(sql, this::mapRowToEvent, subscriber);
+    }
+
+    @Override
+    public void saveGaps(String subscriber, List<Long> eventIds) {
+        String sql = "MERGE INTO outbox_gaps (subscriber, event_id) KEY (subscriber, event_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, eventIds.stream().map(eventId -> new Object[]{subscriber, eventId}).toList());
+    }
+
+    @Override
+    public void deleteGaps(String subscriber, List<Long> eventIds) {
+        String sql = "DELETE FROM outbox_gaps WHERE subscriber = ? AND event_id = ?";
+        jdbcTemplate.batchUpdate(sql, eventIds.stream().map(eventId -> new Object[]{subscriber, eventId}).toList());
+    }
+
+    @Override
+    public int deleteGapsNoticedBefore(String subscriber, Instant noticedBefore) {
+        String sql = "DELETE FROM outbox_gaps WHERE subscriber = ? AND noticed_at < ?";
+        return jdbcTemplate.update(sql, subscriber, Timestamp.from(noticedBefore));
+    }
+
+    @Override
+    public int deleteDelivered(long upToId, Instant createdBefore) {
+        String sql = "DELETE FROM outbox WHERE event_id <= ? AND created_at < ?";
+        return jdbcTemplate.update(sql, upToId, Timestamp.from(createdBefore));
+    }
+
+    private OutboxEvent mapRowToEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new OutboxEvent(
+                rs.getLong("event_id"),
+                OutboxEventType.valueOf(rs.getString("event_type")),
+                rs.getInt("entity_id"),
+                rs.getObject("related_id", Integer.class),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant());
+    }
+}
@@ -0,0 +1,256 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.shard.JdbcShards;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Тянет события из outbox основной БД и из outbox каждого шарда. У каждого источника своя нумерация,
+// смещения и пропуски подписчика хранятся в той же БД, что и события
+@Component
+@Slf4j
+public class OutboxDispatcher {
+    private static final String MAIN_SOURCE = "main";
+
+    private final List<Source> sources = new ArrayList<>();
+    private final Map<String, Feed> feeds = new LinkedHashMap<>();
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration gapExpiry;
+    private final Duration retention;
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    @Autowired
+    public OutboxDispatcher(OutboxStorage outboxStorage, ObjectProvider<JdbcShards> shards,
+                            List<OutboxSubscriber> subscribers, MeterRegistry meterRegistry,
+                            @Value("${filmorate.outbox.batch-size:500}") int batchSize,
+                            @Value("${filmorate.outbox.gap-timeout-ms:5000}") long gapTimeoutMs,
+                            @Value("${filmorate.outbox.gap-expiry-ms:600000}") long gapExpiryMs,
+                            @Value("${filmorate.outbox.retention-ms:604800000}") long retentionMs) {
+        this(outboxStorage, shardOutboxes(shards.getIfAvailable()), subscribers, meterRegistry,
+                batchSize, gapTimeoutMs, gapExpiryMs, retentionMs);
+    }
+
+    public OutboxDispatcher(OutboxStorage outboxStorage, List<OutboxStorage> shardOutboxes,
+                            List<OutboxSubscriber> subscribers, MeterRegistry meterRegistry,
+                            int batchSize, long gapTimeoutMs, long gapExpiryMs, long retentionMs) {
+        this.batchSize = batchSize;
+        this.gapTimeout = Duration.ofMillis(gapTimeoutMs);
+        this.gapExpiry = Duration.ofMillis(gapExpiryMs);
+        this.retention = Duration.ofMillis(retentionMs);
+        sources.add(new Source(MAIN_SOURCE, outboxStorage));
+        for (int shard = 0; shard < shardOutboxes.size(); shard++) {
+            sources.add(new Source("shard-" + shard, shardOutboxes.get(shard)));
+        }
+        Set<String> names = new HashSet<>();
+        for (OutboxSubscriber subscriber : subscribers) {
+            if (!names.add(subscriber.getName())) {
+                throw new IllegalStateException("Подписчик outbox " + subscriber.getName() + " зарегистрирован дважды");
+            }
+            for (Source source : sources) {
+                Feed feed = new Feed(feedName(subscriber, source), subscriber, source, new AtomicLong());
+                feeds.put(feed.name(), feed);
+                Gauge.builder("filmorate.outbox.lag", feed.lag(), AtomicLong::get)
+                        .description("Число событий outbox, ещё не доставленных подписчику")
+                        .tag("subscriber", subscriber.getName())
+                        .tag("source", source.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.outbox.poll-interval-ms:1000}",
+            fixedDelayString = "${filmorate.outbox.poll-interval-ms:1000}")
+    public void scheduledDispatch() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.error("Не удалось разослать события outbox, повтор при следующем опросе", e);
+        }
+    }
+
+    // Возвращает число доставленных событий по всем подписчикам и источникам
+    public int dispatch() {
+        dispatchLock.lock();
+        try {
+            int delivered = 0;
+            for (Feed feed : feeds.values()) {
+                delivered += dispatch(feed);
+            }
+            return delivered;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    // Следующий опрос доставит в поток все события его источника начиная с fromEventId.
+    // Поток основной БД называется именем подписчика, поток шарда — «подписчик@shard-N»
+    public void replay(String feedName, long fromEventId) {
+        Feed feed = feeds.get(feedName);
+        if (feed == null) {
+            throw new NoSuchElementException("Поток outbox " + feedName + " не найден");
+        }
+        dispatchLock.lock();
+        try {
+            feed.source().storage().saveOffset(feed.subscriber().getName(), Math.max(fromEventId - 1, 0));
+            log.info("Поток outbox {} получит события начиная с {}", feedName, fromEventId);
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    public Map<String, Long> getOffsets() {
+        Map<String, Map<String, Long>> stored = new HashMap<>();
+        sources.forEach(source -> stored.put(source.name(), source.storage().getOffsets()));
+        Map<String, Long> offsets = new LinkedHashMap<>();
+        feeds.values().forEach(feed -> offsets.put(feed.name(),
+                stored.get(feed.source().name()).getOrDefault(feed.subscriber().getName(), 0L)));
+        return offsets;
+    }
+
+    public Map<String, Long> getHeads() {
+        Map<String, Long> heads = new LinkedHashMap<>();
+        sources.forEach(source -> heads.put(source.name(), source.storage().getHeadId()));
+        return heads;
+    }
+
+    // Удаляются только события старше срока хранения, уже доставленные всем подписчикам
+    @Scheduled(initialDelayString = "${filmorate.outbox.prune-interval-ms:3600000}",
+            fixedDelayString = "${filmorate.outbox.prune-interval-ms:3600000}")
+    public void prune() {
+        Instant createdBefore = Instant.now().minus(retention);
+        for (Source source : sources) {
+            OutboxStorage storage = source.storage();
+            Map<String, Long> offsets = storage.getOffsets();
+            long delivered = feeds.values().stream()
+                    .filter(feed -> feed.source() == source)
+                    .mapToLong(feed -> offsets.getOrDefault(feed.subscriber().getName(), 0L))
+                    .min()
+                    .orElse(storage.getHeadId());
+            int deleted = storage.deleteDelivered(delivered, createdBefore);
+            if (deleted > 0) {
+                log.info("Удалено доставленных событий outbox {}: {}", source.name(), deleted);
+            }
+        }
+    }
+
+    private int dispatch(Feed feed) {
+        OutboxSubscriber subscriber = feed.subscriber();
+        OutboxStorage outboxStorage = feed.source().storage();
+        String name = subscriber.getName();
+        Instant now = Instant.now();
+        int count = deliverLateEvents(feed, now);
+        if (count < 0) {
+            return 0;
+        }
+
+        long offset = outboxStorage.getOffset(name);
+        List<OutboxEvent> batch = outboxStorage.findAfter(offset, batchSize);
+        long delivered = offset;
+        List<Long> gaps = new ArrayList<>();
+        Instant settledBefore = now.minus(gapTimeout);
+        for (OutboxEvent event : batch) {
+            // Пропуск в нумерации — транзакция с меньшим id ещё не зафиксирована или откатилась.
+            // Пока событие свежее, ждём её gapTimeout, затем идём дальше и запоминаем пропущенные id
+            if (event.id() != delivered + 1 && event.createdAt().isAfter(settledBefore)) {
+                break;
+            }
+            if (!deliver(subscriber, event)) {
+                break;
+            }
+            for (long gap = delivered + 1; gap < event.id(); gap++) {
+                gaps.add(gap);
+            }
+            delivered = event.id();
+            count++;
+        }
+
+        // Пропуски сохраняются раньше смещения: иначе сбой между записями потерял бы их
+        if (!gaps.isEmpty()) {
+            outboxStorage.saveGaps(name, gaps);
+        }
+        if (delivered != offset) {
+            outboxStorage.saveOffset(name, delivered);
+        }
+        feed.lag().set(batch.isEmpty() ? 0 : Math.max(outboxStorage.getHeadId() - delivered, 0));
+        return count;
+    }
+
+    // Медленная транзакция может зафиксироваться уже после того, как смещение ушло за её id. Такие события
+    // доставляются вне очереди, пока не истечёт gapExpiry; -1 — подписчик упал, опрос повторится позже
+    private int deliverLateEvents(Feed feed, Instant now) {
+        OutboxSubscriber subscriber = feed.subscriber();
+        OutboxStorage outboxStorage = feed.source().storage();
+        String name = subscriber.getName();
+        List<Long> arrived = new ArrayList<>();
+        boolean failed = false;
+        for (OutboxEvent event : outboxStorage.findGapEvents(name)) {
+            if (!deliver(subscriber, event)) {
+                failed = true;
+                break;
+            }
+            arrived.add(event.id());
+        }
+        if (!arrived.isEmpty()) {
+            outboxStorage.deleteGaps(name, arrived);
+            log.info("Потоку outbox {} доставлено событий, зафиксированных с опозданием: {}", feed.name(), arrived.size());
+        }
+        if (failed) {
+            return -1;
+        }
+        int expired = outboxStorage.deleteGapsNoticedBefore(name, now.minus(gapExpiry));
+        if (expired > 0) {
+            log.warn("Поток outbox {}: {} пропусков в нумерации так и не заполнились, транзакции считаются откаченными",
+                    feed.name(), expired);
+        }
+        return arrived.size();
+    }
+
+    private boolean deliver(OutboxSubscriber subscriber, OutboxEvent event) {
+        try {
+            subscriber.onEvent(event);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Подписчик outbox {} не обработал событие {}, повтор при следующем опросе",
+                    subscriber.getName(), event.id(), e);
+            return false;
+        }
+    }
+
+    private static List<OutboxStorage> shardOutboxes(JdbcShards shards) {
+        List<OutboxStorage> outboxes = new ArrayList<>();
+        if (shards != null) {
+            for (int shard = 0; shard < shards.size(); shard++) {
+                outboxes.add(shards.outbox(shard));
+            }
+        }
+        return outboxes;
+    }
+
+    private static String feedName(OutboxSubscriber subscriber, Source source) {
+        return MAIN_SOURCE.equals(source.name()) ? subscriber.getName() : subscriber.getName() + "@" + source.name();
+    }
+
+    private record Source(String name, OutboxStorage storage) {
+    }
+
+    private record Feed(String name, OutboxSubscriber subscriber, Source source, AtomicLong lag) {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "outbox")
+public class OutboxEndpoint {
+    private final OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    public OutboxEndpoint(OutboxDispatcher outboxDispatcher) {
+        this.outboxDispatcher = outboxDispatcher;
+    }
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        return Map.of("heads", outboxDispatcher.getHeads(), "offsets", outboxDispatcher.getOffsets());
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(String feed, long fromEventId) {
+        outboxDispatcher.replay(feed, fromEventId);
+        return summary();
+    }
+}
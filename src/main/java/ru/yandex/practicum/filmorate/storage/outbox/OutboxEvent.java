@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import java.time.Instant;
+
+// entityId — фильм для FILM_* и LIKE_*, отправитель заявки для FRIEND*; relatedId — пользователь или друг;
+// payload — статус дружбы для FRIEND_ADDED и FRIENDSHIP_STATUS_CHANGED
+public record OutboxEvent(long id, OutboxEventType type, int entityId, Integer relatedId, String payload,
+                          Instant createdAt) {
+
+    public static OutboxEvent of(OutboxEventType type, int entityId, Integer relatedId, String payload) {
+        return new OutboxEvent(0, type, entityId, relatedId, payload, null);
+    }
+}
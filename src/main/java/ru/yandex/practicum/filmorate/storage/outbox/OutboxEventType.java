@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+public enum OutboxEventType {
+    FILM_CREATED,
+    FILM_UPDATED,
+    LIKE_ADDED,
+    LIKE_REMOVED,
+    FRIEND_ADDED,
+    FRIEND_REMOVED,
+    FRIENDSHIP_STATUS_CHANGED
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public interface OutboxStorage {
+    void append(OutboxEvent event);
+
+    void appendAll(List<OutboxEvent> events);
+
+    List<OutboxEvent> findAfter(long afterId, int limit);
+
+    long getHeadId();
+
+    long getOffset(String subscriber);
+
+    Map<String, Long> getOffsets();
+
+    void saveOffset(String subscriber, long eventId);
+
+    List<OutboxEvent> findGapEvents(String subscriber);
+
+    void saveGaps(String subscriber, List<Long> eventIds);
+
+    void deleteGaps(String subscriber, List<Long> eventIds);
+
+    int deleteGapsNoticedBefore(String subscriber, Instant noticedBefore);
+
+    int deleteDelivered(long upToId, Instant createdBefore);
+}
@@ -0,0 +1,8 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+// Доставка «хотя бы один раз»: после сбоя или повтора с заданного смещения событие может прийти снова
+public interface OutboxSubscriber {
+    String getName();
+
+    void onEvent(OutboxEvent event);
+}
@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "referencedata")
+public class ReferenceDataEndpoint {
+    private final ReferenceDataRegistry referenceDataRegistry;
+
+    @Autowired
+    public ReferenceDataEndpoint(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Integer> summary() {
+        return Map.of("genres", referenceDataRegistry.getAllGenres().size(),
+                "mpa", referenceDataRegistry.getAllMpa().size());
+    }
+
+    @WriteOperation
+    public Map<String, Integer> reload() {
+        referenceDataRegistry.reload();
+        return summary();
+    }
+}
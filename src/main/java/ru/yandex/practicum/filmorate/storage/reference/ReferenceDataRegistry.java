@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@Slf4j
+public class ReferenceDataRegistry {
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    // Не synchronized: запрос к БД под монитором закрепил бы виртуальный поток за потоком-носителем
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(new Genre[0], List.of(), new AgeRating[0], List.of(),
+            new Version(0, System.currentTimeMillis()), new Version(0, System.currentTimeMillis()));
+
+    @Autowired
+    public ReferenceDataRegistry(GenreStorage genreStorage, MpaStorage mpaStorage) {
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+    }
+
+    @PostConstruct
+    public void reload() {
+        reloadLock.lock();
+        try {
+            doReload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void doReload() {
+        List<Genre> genres = List.copyOf(genreStorage.getAllGenres());
+        List<AgeRating> ratings = List.copyOf(mpaStorage.getAllMpa());
+
+        Genre[] genresById = new Genre[maxGenreId(genres) + 1];
+        genres.forEach(genre -> genresById[genre.getId()] = genre);
+        AgeRating[] ratingsById = new AgeRating[maxRatingId(ratings) + 1];
+        ratings.forEach(rating -> ratingsById[rating.getId()] = rating);
+
+        Snapshot previous = snapshot;
+        long now = System.currentTimeMillis();
+        snapshot = new Snapshot(genresById, genres, ratingsById, ratings,
+                genres.equals(previous.genres()) ? previous.genresVersion() : previous.genresVersion().next(now),
+                ratings.equals(previous.ratings()) ? previous.ratingsVersion() : previous.ratingsVersion().next(now));
+        log.info("Справочники загружены: жанров {}, рейтингов MPA {}", genres.size(), ratings.size());
+    }
+
+    public List<Genre> getAllGenres() {
+        return snapshot.genres();
+    }
+
+    public List<AgeRating> getAllMpa() {
+        return snapshot.ratings();
+    }
+
+    public Version getGenresVersion() {
+        return snapshot.genresVersion();
+    }
+
+    public Version getRatingsVersion() {
+        return snapshot.ratingsVersion();
+    }
+
+    public Genre getGenre(int id) {
+        Genre[] genres = snapshot.genresById();
+        return id >= 0 && id < genres.length ? genres[id] : null;
+    }
+
+    public AgeRating getMpa(int id) {
+        AgeRating[] ratings = snapshot.ratingsById();
+        return id >= 0 && id < ratings.length ? ratings[id] : null;
+    }
+
+    // Для строк из БД ссылка гарантирована внешним ключом, поэтому промах означает устаревший справочник
+    public Genre resolveGenre(int id) {
+        Genre genre = getGenre(id);
+        if (genre == null) {
+            reload();
+            genre = getGenre(id);
+        }
+        return genre;
+    }
+
+    public AgeRating resolveMpa(int id) {
+        AgeRating rating = getMpa(id);
+        if (rating == null) {
+            reload();
+            rating = getMpa(id);
+        }
+        return rating;
+    }
+
+    private static int maxGenreId(List<Genre> genres) {
+        return genres.stream().mapToInt(Genre::getId).max().orElse(0);
+    }
+
+    private static int maxRatingId(List<AgeRating> ratings) {
+        return ratings.stream().mapToInt(AgeRating::getId).max().orElse(0);
+    }
+
+    public record Version(long value, long modifiedAt) {
+        Version next(long now) {
+            return new Version(value + 1, now);
+        }
+    }
+
+    private record Snapshot(Genre[] genresById, List<Genre> genres, AgeRating[] ratingsById, List<AgeRating> ratings,
+                            Version genresVersion, Version ratingsVersion) {
+    }
+}
@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxStorage;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+// Встроенные БД H2 с таблицами likes, friendships и своим outbox, у каждой свой пул соединений и менеджер транзакций
+@Component
+@ConditionalOnProperty(name = "filmorate.sharding.enabled", havingValue = "true")
+@Slf4j
+public class JdbcShards {
+    static final String SCHEMA = "shard-schema.sql";
+    static final String DATA = "shard-data.sql";
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> templates = new ArrayList<>();
+    private final List<TransactionTemplate> transactions = new ArrayList<>();
+    private final List<OutboxStorage> outboxes = new ArrayList<>();
+    private final ExecutorService executor;
+
+    @Autowired
+    public JdbcShards(@Value("${filmorate.sharding.shards:4}") int shards,
+                      @Value("${filmorate.sharding.url-template}") String urlTemplate,
+                      @Value("${filmorate.sharding.username:${spring.datasource.username:sa}}") String username,
+                      @Value("${filmorate.sharding.password:${spring.datasource.password:}}") String password,
+                      @Value("${filmorate.sharding.pool-size:5}") int poolSize,
+                      @Value("${spring.sql.init.mode:embedded}") String initMode) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shards);
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SCHEMA));
+        // Основная БД очищается data.sql при каждом запуске, шарды очищаются вместе с ней
+        if ("always".equals(initMode)) {
+            populator.addScript(new ClassPathResource(DATA));
+        }
+        for (int i = 0; i < shards; i++) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + i);
+            config.setJdbcUrl(url(urlTemplate, i));
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(poolSize);
+            HikariDataSource dataSource = new HikariDataSource(config);
+            dataSources.add(dataSource);
+            populator.execute(dataSource);
+            JdbcTemplate template = new JdbcTemplate(dataSource);
+            templates.add(template);
+            transactions.add(new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+            outboxes.add(new OutboxDbStorage(template));
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shards, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Подключено шардов лайков и дружбы: {}", shards);
+    }
+
+    public static int shardOf(int key, int shards) {
+        return Math.floorMod(key, shards);
+    }
+
+    public static String url(String urlTemplate, int shard) {
+        return String.format(urlTemplate, shard);
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public int shardOf(int key) {
+        return shardOf(key, templates.size());
+    }
+
+    public JdbcTemplate get(int shard) {
+        return templates.get(shard);
+    }
+
+    public JdbcTemplate forKey(int key) {
+        return templates.get(shardOf(key));
+    }
+
+    // Транзакция в БД шарда, независимая от транзакции основной БД
+    public TransactionTemplate transactions(int shard) {
+        return transactions.get(shard);
+    }
+
+    public OutboxStorage outbox(int shard) {
+        return outboxes.get(shard);
+    }
+
+    // Выполняет запрос на всех шардах параллельно; результаты в порядке номеров шардов
+    public <T> List<T> scatter(IntFunction<T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            futures.forEach(future -> results.add(future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    // Сливает упорядоченные курсоры всех шардов в общий порядок, как у того же запроса к одной БД.
+    // Курсоры открыты одновременно, в памяти держится по одной строке на шард
+    public <T> void mergeSorted(String sql, int fetchSize, RowMapper<T> mapper, Comparator<? super T> order,
+                                Consumer<? super T> consumer) {
+        List<Stream<T>> streams = new ArrayList<>(templates.size());
+        try {
+            PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>(templates.size(),
+                    (left, right) -> order.compare(left.head, right.head));
+            for (JdbcTemplate template : templates) {
+                Stream<T> rows = template.queryForStream(connection -> {
+                    PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    stmt.setFetchSize(fetchSize);
+                    return stmt;
+                }, mapper);
+                streams.add(rows);
+                Iterator<T> iterator = rows.iterator();
+                if (iterator.hasNext()) {
+                    cursors.add(new Cursor<>(iterator, iterator.next()));
+                }
+            }
+            while (!cursors.isEmpty()) {
+                Cursor<T> cursor = cursors.poll();
+                consumer.accept(cursor.head);
+                if (cursor.rows.hasNext()) {
+                    cursor.head = cursor.rows.next();
+                    cursors.add(cursor);
+                }
+            }
+        } finally {
+            streams.forEach(Stream::close);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    private static final class Cursor<T> {
+        private final Iterator<T> rows;
+        private T head;
+
+        private Cursor(Iterator<T> rows, T head) {
+            this.rows = rows;
+            this.head = head;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Офлайн-перераспределение лайков и дружбы между наборами шардов, приложение должно быть остановлено.
+// Исходный набор из одной БД без %d в шаблоне — перенос из основной БД в шарды.
+// Запись идёт через MERGE, поэтому прерванный запуск можно повторить.
+@Slf4j
+public class Resharder {
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 500;
+
+    private final String username;
+    private final String password;
+
+    public Resharder(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length != 4 && args.length != 6) {
+            System.err.println("Использование: Resharder <шаблон-url-источника> <шардов-в-источнике> " +
+                    "<шаблон-url-назначения> <шардов-в-назначении> [пользователь пароль]");
+            System.exit(2);
+        }
+        Resharder resharder = args.length == 6 ? new Resharder(args[4], args[5]) : new Resharder("sa", "password");
+        resharder.reshard(args[0], Integer.parseInt(args[1]), args[2], Integer.parseInt(args[3]));
+    }
+
+    public void reshard(String sourceTemplate, int sourceShards, String targetTemplate, int targetShards)
+            throws SQLException {
+        if (sourceTemplate.equals(targetTemplate)) {
+            throw new IllegalArgumentException("Перераспределение на месте не поддерживается, укажите новый шаблон url");
+        }
+        List<Connection> targets = new ArrayList<>(targetShards);
+        try {
+            for (int shard = 0; shard < targetShards; shard++) {
+                Connection connection = connect(JdbcShards.url(targetTemplate, shard));
+                targets.add(connection);
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource(JdbcShards.SCHEMA));
+                connection.setAutoCommit(false);
+            }
+
+            long likes = 0;
+            long friendships = 0;
+            for (int shard = 0; shard < sourceShards; shard++) {
+                try (Connection source = connect(JdbcShards.url(sourceTemplate, shard))) {
+                    likes += copy(source, targets, "SELECT film_id, user_id, created_at FROM likes",
+                            "MERGE INTO likes (film_id, user_id, created_at) KEY (film_id, user_id) VALUES (?, ?, ?)");
+                    friendships += copy(source, targets, "SELECT user_id, friend_id, status FROM friendships",
+                            "MERGE INTO friendships (user_id, friend_id, status) KEY (user_id, friend_id) VALUES (?, ?, ?)");
+                }
+                log.info("Шард-источник {} перенесён", shard);
+            }
+
+            verify(targets, "likes", likes);
+            verify(targets, "friendships", friendships);
+            log.info("Перераспределено лайков {}, связей дружбы {} на {} шардов", likes, friendships, targetShards);
+        } finally {
+            for (Connection target : targets) {
+                target.close();
+            }
+        }
+    }
+
+    // Ключ шардирования — первый столбец выборки: film_id для лайков, user_id для дружбы
+    private long copy(Connection source, List<Connection> targets, String select, String merge) throws SQLException {
+        List<PreparedStatement> inserts = new ArrayList<>(targets.size());
+        int[] pending = new int[targets.size()];
+        long copied = 0;
+        try (Statement stmt = source.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            for (Connection target : targets) {
+                inserts.add(target.prepareStatement(merge));
+            }
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(select)) {
+                while (rs.next()) {
+                    int shard = JdbcShards.shardOf(rs.getInt(1), targets.size());
+                    PreparedStatement insert = inserts.get(shard);
+                    insert.setInt(1, rs.getInt(1));
+                    insert.setInt(2, rs.getInt(2));
+                    insert.setObject(3, rs.getObject(3));
+                    insert.addBatch();
+                    copied++;
+                    if (++pending[shard] == BATCH_SIZE) {
+                        flush(insert, targets.get(shard));
+                        pending[shard] = 0;
+                    }
+                }
+            }
+            for (int shard = 0; shard < targets.size(); shard++) {
+                if (pending[shard] > 0) {
+                    flush(inserts.get(shard), targets.get(shard));
+                }
+            }
+        } finally {
+            for (PreparedStatement insert : inserts) {
+                insert.close();
+            }
+        }
+        return copied;
+    }
+
+    private static void flush(PreparedStatement insert, Connection target) throws SQLException {
+        insert.executeBatch();
+        target.commit();
+    }
+
+    // В назначении может оказаться больше строк, если оно было заполнено до запуска
+    private static void verify(List<Connection> targets, String table, long expected) throws SQLException {
+        long actual = 0;
+        for (Connection target : targets) {
+            try (Statement stmt = target.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                rs.next();
+                actual += rs.getLong(1);
+            }
+        }
+        if (actual < expected) {
+            throw new IllegalStateException("В таблице " + table + " после переноса " + actual +
+                    " строк вместо " + expected);
+        }
+    }
+
+    private Connection connect(String url) throws SQLException {
+        return DriverManager.getConnection(url, username, password);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// ShardedLikeStorage и WriteBehindLikeStorage обе объявлены @Primary для LikeStorage. Проверка срабатывает
+// до создания бинов, чтобы вместо ошибки неоднозначной зависимости запуск падал с понятной причиной
+@Component
+@ConditionalOnProperty(name = {"filmorate.sharding.enabled", "filmorate.likes.write-behind.enabled"},
+        havingValue = "true")
+public class ShardingWriteBehindCheck implements BeanFactoryPostProcessor {
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        throw new IllegalStateException("Шардирование лайков (filmorate.sharding.enabled) не совмещается " +
+                "с отложенной записью (filmorate.likes.write-behind.enabled): включите только одно из них");
+    }
+}
@@ -2,25 +2,39 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.User;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 @Repository
 @Qualifier("userDbStorage")
 public class UserDbStorage implements UserStorage {
+    private static final int IN_CHUNK_SIZE = 500;
 
     private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
 
     @Autowired
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate,
+                         @Value("${filmorate.streaming.fetch-size:500}") int fetchSize) {
         this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
     }
 
     @Override
@@ -48,6 +62,50 @@ public class UserDbStorage implements UserStorage {
         return user;
     }
 
+    @Override
+    public List<User> createAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement stmt, int i) throws SQLException {
+                        User user = users.get(i);
+                        stmt.setString(1, user.getEmail());
+                        stmt.setString(2, user.getLogin());
+                        stmt.setString(3, user.getName());
+                        stmt.setDate(4, Date.valueOf(user.getBirthday()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            users.get(i).setId(id.intValue());
+        }
+        return users;
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        return findExistingValues("email", emails);
+    }
+
+    @Override
+    public Set<String> findExistingLogins(Collection<String> logins) {
+        return findExistingValues("login", logins);
+    }
+
     @Override
     public User update(User user) {
         String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
@@ -74,6 +132,70 @@ public class UserDbStorage implements UserStorage {
         return count != null && count > 0;
     }
 
+    @Override
+    public void forEachId(IntConsumer consumer) {
+        String sql = "SELECT user_id FROM users";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(rs.getInt("user_id"));
+        });
+    }
+
+    @Override
+    public List<User> findAllByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Integer, User> usersById = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            String sql = "SELECT * FROM users WHERE user_id IN (" + placeholders(chunk.size()) + ")";
+            jdbcTemplate.query(sql, this::mapRowToUser, chunk.toArray())
+                    .forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        List<User> users = new ArrayList<>(usersById.size());
+        for (Integer id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> findPage(Integer afterId, int limit) {
+        String sql = "SELECT * FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(sql, this::mapRowToUser, afterId != null ? afterId : 0, limit);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        String sql = "SELECT * FROM users ORDER BY user_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            return stmt;
+        }, rs -> {
+            consumer.accept(mapRowToUser(rs, 0));
+        });
+    }
+
+    private Set<String> findExistingValues(String column, Collection<String> values) {
+        Set<String> existing = new HashSet<>();
+        List<String> list = new ArrayList<>(values);
+        for (int from = 0; from < list.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = list.subList(from, Math.min(from + IN_CHUNK_SIZE, list.size()));
+            String sql = "SELECT " + column + " FROM users WHERE " + column + " IN (" + placeholders(chunk.size()) + ")";
+            existing.addAll(jdbcTemplate.queryForList(sql, String.class, chunk.toArray()));
+        }
+        return existing;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
     private User mapRowToUser(ResultSet rs, int rowNum) throws SQLException {
         User user = new User();
         user.setId(rs.getInt("user_id"));
@@ -2,16 +2,34 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public interface UserStorage {
     Collection<User> findAll();
 
     User create(User user);
 
+    List<User> createAll(List<User> users);
+
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    Set<String> findExistingLogins(Collection<String> logins);
+
     User update(User user);
 
     Optional<User> findById(Integer id);
 
     boolean existsById(Integer id);
+
+    void forEachId(IntConsumer consumer);
+
+    List<User> findAllByIds(List<Integer> ids);
+
+    List<User> findPage(Integer afterId, int limit);
+
+    void streamAll(Consumer<User> consumer);
 }
\ No newline at end of file
@@ -1,3 +1,6 @@
+DELETE FROM outbox;
+DELETE FROM outbox_offsets;
+DELETE FROM outbox_gaps;
 DELETE FROM likes;
 DELETE FROM film_genres;
 DELETE FROM friendships;
@@ -10,6 +13,7 @@ ALTER TABLE users ALTER COLUMN user_id RESTART WITH 1;
 ALTER TABLE films ALTER COLUMN film_id RESTART WITH 1;
 ALTER TABLE ratings ALTER COLUMN rating_id RESTART WITH 1;
 ALTER TABLE genres ALTER COLUMN genre_id RESTART WITH 1;
+ALTER TABLE outbox ALTER COLUMN event_id RESTART WITH 1;
 
 INSERT INTO ratings (rating_id, code) VALUES
 (1, 'G'),
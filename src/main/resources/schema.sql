@@ -18,9 +18,12 @@ CREATE TABLE IF NOT EXISTS films (
     release_date DATE NOT NULL,
     duration INT NOT NULL,
     rating_id INT,
+    likes_count INT NOT NULL DEFAULT 0,
     FOREIGN KEY (rating_id) REFERENCES ratings(rating_id)
 );
 
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count INT NOT NULL DEFAULT 0;
+
 CREATE TABLE IF NOT EXISTS genres (
     genre_id INT PRIMARY KEY AUTO_INCREMENT,
     name VARCHAR(255) NOT NULL
@@ -46,12 +49,39 @@ CREATE TABLE IF NOT EXISTS friendships (
 CREATE TABLE IF NOT EXISTS likes (
     film_id INT,
     user_id INT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     PRIMARY KEY (film_id, user_id),
     FOREIGN KEY (film_id) REFERENCES films(film_id),
     FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
 
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
 CREATE INDEX IF NOT EXISTS idx_likes_film_id ON likes(film_id);
 CREATE INDEX IF NOT EXISTS idx_likes_user_id ON likes(user_id);
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes(created_at);
 CREATE INDEX IF NOT EXISTS idx_friendships_user_id ON friendships(user_id);
-CREATE INDEX IF NOT EXISTS idx_friendships_friend_id ON friendships(friend_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS idx_friendships_friend_id ON friendships(friend_id);
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films(likes_count DESC, film_id);
+CREATE INDEX IF NOT EXISTS idx_films_release_date_likes ON films(release_date, likes_count DESC);
+CREATE INDEX IF NOT EXISTS idx_film_genres_genre_film ON film_genres(genre_id, film_id);
+CREATE TABLE IF NOT EXISTS outbox (
+    event_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    event_type VARCHAR(40) NOT NULL,
+    entity_id INT NOT NULL,
+    related_id INT,
+    payload VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    subscriber VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_gaps (
+    subscriber VARCHAR(100) NOT NULL,
+    event_id BIGINT NOT NULL,
+    noticed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (subscriber, event_id)
+);
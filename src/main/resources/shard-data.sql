@@ -0,0 +1,7 @@
+DELETE FROM likes;
+DELETE FROM friendships;
+DELETE FROM outbox;
+DELETE FROM outbox_offsets;
+DELETE FROM outbox_gaps;
+
+ALTER TABLE outbox ALTER COLUMN event_id RESTART WITH 1;
@@ -0,0 +1,38 @@
+CREATE TABLE IF NOT EXISTS likes (
+    film_id INT NOT NULL,
+    user_id INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (film_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS friendships (
+    user_id INT NOT NULL,
+    friend_id INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    PRIMARY KEY (user_id, friend_id)
+);
+
+CREATE TABLE IF NOT EXISTS outbox (
+    event_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    event_type VARCHAR(40) NOT NULL,
+    entity_id INT NOT NULL,
+    related_id INT,
+    payload VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    subscriber VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS outbox_gaps (
+    subscriber VARCHAR(100) NOT NULL,
+    event_id BIGINT NOT NULL,
+    noticed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (subscriber, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_likes_user_id ON likes(user_id);
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes(created_at);
+CREATE INDEX IF NOT EXISTS idx_friendships_friend_id ON friendships(friend_id);
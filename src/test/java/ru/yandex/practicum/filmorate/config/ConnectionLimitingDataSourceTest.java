@@ -0,0 +1,54 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource dataSource;
+
+    @Test
+    void getConnection_WhenAllPermitsTaken_ShouldWaitAndFailAfterTimeout() throws Exception {
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, 1, 50);
+
+        Connection first = limited.getConnection();
+        assertThat(limited.getAvailablePermits()).isZero();
+        assertThatThrownBy(limited::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+        try (Connection second = limited.getConnection()) {
+            assertThat(((ConnectionProxy) second).getTargetConnection()).isNotNull();
+        }
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+    }
+
+    // Вне тестовой транзакции, иначе соединение удерживается до её окончания
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void jdbcTemplate_ShouldReleasePermitAfterEachQuery() {
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, 2, 50);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(limited);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM genres", Integer.class)).isEqualTo(6);
+        }
+        assertThat(limited.getAvailablePermits()).isEqualTo(2);
+    }
+}
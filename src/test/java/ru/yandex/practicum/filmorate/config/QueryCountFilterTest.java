@@ -0,0 +1,92 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.jayway.jsonpath.JsonPath;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class QueryCountFilterTest {
+
+    private final MockMvc mockMvc;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testFindAllFilms_ShouldReportBoundedQueryCount() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(QueryCountFilter.TIME_HEADER))
+                .andReturn();
+
+        assertThat(queryCount(result)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testGetFriends_ShouldNotQueryPerFriend() throws Exception {
+        int userId = createUser("qc0");
+        for (int i = 1; i <= 5; i++) {
+            mockMvc.perform(put("/users/" + userId + "/friends/" + createUser("qc" + i)))
+                    .andExpect(status().isOk());
+        }
+
+        MvcResult result = mockMvc.perform(get("/users/" + userId + "/friends"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(queryCount(result)).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testQueryStats_ShouldCountQueriesAndFlagRepeatedShapes() {
+        try (QueryStats outer = QueryStats.start()) {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+            try (QueryStats inner = QueryStats.start()) {
+                for (int i = 0; i < 12; i++) {
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_id = ?", Integer.class, i);
+                }
+                assertThat(inner.getCount()).isEqualTo(12);
+                assertThat(inner.getRepeated(10))
+                        .containsExactly(Map.entry("SELECT COUNT(*) FROM users WHERE user_id = ?", 12));
+            }
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE user_id IN (1, 2, 3)", Integer.class);
+
+            assertThat(outer.getCount()).isEqualTo(14);
+            assertThat(outer.getRepeated(12)).isEmpty();
+        }
+        assertThat(QueryStats.shape("SELECT *  FROM films\n WHERE film_id IN (?, ?,?) LIMIT 10"))
+                .isEqualTo("SELECT * FROM films WHERE film_id IN (?, ...) LIMIT N");
+    }
+
+    private int createUser(String login) throws Exception {
+        String response = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + login + "@example.com\",\"login\":\"" + login + "\"," +
+                                "\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(response, "$.id");
+    }
+
+    private static int queryCount(MvcResult result) {
+        String header = result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER);
+        assertThat(header).isNotNull();
+        return Integer.parseInt(header);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ExportControllerTest {
+
+    private final MockMvc mockMvc;
+
+    private String filmId;
+    private String userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filmId = idOf(mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Export\",\"description\":\"Description\",\"releaseDate\":\"2000-01-01\"," +
+                                "\"duration\":100,\"mpa\":{\"id\":1},\"genres\":[{\"id\":1},{\"id\":2}]}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        userId = idOf(mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"export" + System.nanoTime() + "@example.com\"," +
+                                "\"login\":\"export" + System.nanoTime() + "\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(put("/films/" + filmId + "/like/" + userId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void exportFilms_ShouldStreamFilmsWithGenres() throws Exception {
+        MvcResult result = mockMvc.perform(get("/export/films"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(body.split("\n")).anySatisfy(line -> assertThat(line)
+                .startsWith("{\"id\":" + filmId + ",")
+                .contains("\"genres\":[")
+                .contains("Комедия"));
+    }
+
+    @Test
+    void exportLikes_WithGzip_ShouldCompressOnTheFly() throws Exception {
+        MvcResult result = mockMvc.perform(get("/export/likes").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] compressed = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertThat(body.split("\n")).anySatisfy(line -> assertThat(line)
+                .startsWith("{\"filmId\":" + filmId + ",\"userId\":" + userId + ",\"likedAt\":"));
+    }
+
+    @Test
+    void exportUsersAndFriendships_ShouldReturnNdjson() throws Exception {
+        MvcResult users = mockMvc.perform(get("/export/users")).andReturn();
+        String body = mockMvc.perform(asyncDispatch(users))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("{\"id\":" + userId + ",");
+
+        MvcResult friendships = mockMvc.perform(get("/export/friendships")).andReturn();
+        mockMvc.perform(asyncDispatch(friendships))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"friendships.ndjson\""));
+    }
+
+    private static String idOf(String json) {
+        return json.replaceAll("^\\{\"id\":(\\d+).*$", "$1");
+    }
+}
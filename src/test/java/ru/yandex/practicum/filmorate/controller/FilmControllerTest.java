@@ -0,0 +1,190 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmControllerTest {
+
+    private final MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/films")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"name\":\"Film " + i + "\",\"description\":\"Description\"," +
+                                    "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}"))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void testFindAll_DefaultsToJsonArray() throws Exception {
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void testFindAll_WithLimit_ReturnsPageAndCursor() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(header().exists("X-Next-Cursor"));
+    }
+
+    @Test
+    void testFindAll_WithInvalidLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindAll_Ndjson_StreamsOneFilmPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/films").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length).isGreaterThanOrEqualTo(3);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+    }
+
+    @Test
+    void testCreateBatch_ReportsInvalidItemsWithoutAbortingBatch() throws Exception {
+        String body = "[" +
+                "{\"name\":\"Batch 1\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":2}," +
+                "\"genres\":[{\"id\":1}]}," +
+                "{\"name\":\"\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":2}}," +
+                "{\"name\":\"Batch 3\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":99}}," +
+                "{\"name\":\"Batch 4\",\"releaseDate\":\"1800-01-01\",\"duration\":90,\"mpa\":{\"id\":2}}" +
+                "]";
+
+        mockMvc.perform(post("/films/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.items[0].id").isNumber())
+                .andExpect(jsonPath("$.items[1].error").isString())
+                .andExpect(jsonPath("$.items[2].error").value("Указанный рейтинг MPA не существует"));
+    }
+
+    @Test
+    void testCreateBatch_Ndjson() throws Exception {
+        String body = "{\"name\":\"Line 1\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":1}}\n" +
+                "not json\n" +
+                "{\"name\":\"Line 3\",\"releaseDate\":\"2001-01-01\",\"duration\":90,\"mpa\":{\"id\":1}}\n";
+
+        mockMvc.perform(post("/films/batch").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.items[1].success").value(false));
+    }
+
+    @Test
+    void testTrending_WithUnknownWindow_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/films/trending").param("window", "1y"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/trending").param("window", "7d"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+    }
+
+    @Test
+    void testSearch_FindsCreatedFilmsAndRejectsBlankQuery() throws Exception {
+        mockMvc.perform(get("/films/search").param("q", "film"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(greaterThanOrEqualTo(3)));
+        mockMvc.perform(get("/films/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearch_WithCountOutOfRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/films/search").param("q", "film").param("count", "2000000000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films/search").param("q", "film").param("count", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFindFilmById_WithMatchingETag_ReturnsNotModifiedUntilFilmChanges() throws Exception {
+        String created = mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Cached\",\"description\":\"Description\"," +
+                                "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = created.replaceAll("^\\{\"id\":(\\d+).*$", "$1");
+
+        String etag = mockMvc.perform(get("/films/" + id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/films/" + id).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":" + id + ",\"name\":\"Cached 2\",\"description\":\"Description\"," +
+                                "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/" + id).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)))
+                .andExpect(jsonPath("$.name").value("Cached 2"));
+    }
+
+    @Test
+    void testFindFilmById_UnknownFilm_ReturnsNotFoundEvenWithETag() throws Exception {
+        mockMvc.perform(get("/films/99999").header("If-None-Match", "*"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testFindAll_ETagDependsOnPageAndCatalogVersion() throws Exception {
+        String page = mockMvc.perform(get("/films").param("limit", "2"))
+                .andReturn().getResponse().getHeader("ETag");
+        String all = mockMvc.perform(get("/films"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(page).isNotEqualTo(all);
+
+        mockMvc.perform(get("/films").header("If-None-Match", all))
+                .andExpect(status().isNotModified());
+
+        setUp();
+        mockMvc.perform(get("/films").header("If-None-Match", all))
+                .andExpect(status().isOk());
+    }
+}
@@ -7,6 +7,13 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
+import ru.yandex.practicum.filmorate.service.GenreService;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -17,6 +24,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class GenreControllerTest {
 
     private final MockMvc mockMvc;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+
+    @Test
+    void testGetAllGenres_AfterRestart_DoesNotReusePreviousETag() throws Exception {
+        String etag = mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/genres").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // После перезапуска версии справочника снова начинаются с 1
+        ReferenceDataRegistry restartedRegistry = new ReferenceDataRegistry(genreStorage, mpaStorage);
+        restartedRegistry.reload();
+        MockMvc restarted = MockMvcBuilders.standaloneSetup(new GenreController(
+                new GenreService(restartedRegistry), restartedRegistry, new VersionTracker())).build();
+
+        restarted.perform(get("/genres").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
 
     @Test
     void testGetAllGenres() throws Exception {
@@ -44,4 +72,17 @@ class GenreControllerTest {
         mockMvc.perform(get("/genres/999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAllGenres_WithMatchingETag_ReturnsNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/genres"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/genres").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/genres/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserControllerTest {
+
+    private final MockMvc mockMvc;
+
+    @Test
+    void testCreateBatch_RejectsCollisionsAndDefaultsName() throws Exception {
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"taken@example.com\",\"login\":\"taken\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("taken"));
+
+        String body = "[" +
+                "{\"email\":\"batch1@example.com\",\"login\":\"batch1\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"batch1@example.com\",\"login\":\"batch1-copy\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"other@example.com\",\"login\":\"taken\",\"birthday\":\"1990-01-01\"}," +
+                "{\"email\":\"broken\",\"login\":\"broken\",\"birthday\":\"1990-01-01\"}" +
+                "]";
+
+        mockMvc.perform(post("/users/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].id").isNumber())
+                .andExpect(jsonPath("$.items[1].error").value("Email batch1@example.com повторяется в пакете"))
+                .andExpect(jsonPath("$.items[2].error").value("Пользователь с логином taken уже существует"))
+                .andExpect(jsonPath("$.items[3].success").value(false));
+    }
+
+    @Test
+    void testRecommendations_ForUnknownUser_ReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/users/100500/recommendations"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testRecommendations_WithCountOutOfRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/users/1/recommendations").param("count", "300000000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/1/recommendations").param("count", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testFriendSuggestions_ReturnsFriendsOfFriends() throws Exception {
+        int[] ids = new int[3];
+        for (int i = 0; i < ids.length; i++) {
+            String response = mockMvc.perform(post("/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"fof" + i + "@example.com\",\"login\":\"fof" + i + "\"," +
+                                    "\"birthday\":\"1990-01-01\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ids[i] = JsonPath.read(response, "$.id");
+        }
+        mockMvc.perform(put("/users/" + ids[0] + "/friends/" + ids[1])).andExpect(status().isOk());
+        mockMvc.perform(put("/users/" + ids[1] + "/friends/" + ids[2])).andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/" + ids[0] + "/friends/suggestions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(ids[2]));
+        mockMvc.perform(get("/users/" + ids[0] + "/friends/suggestions").param("count", "2000000000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// По файлу на таблицу; заголовок совпадает с колонками schema.sql, поэтому файлы читаются через CSVREAD
+public class CsvDatasetSink implements DatasetSink {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Map<String, List<String>> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("users", List.of("user_id", "email", "login", "name", "birthday"));
+        COLUMNS.put("films", List.of("film_id", "name", "description", "release_date", "duration", "rating_id"));
+        COLUMNS.put("film_genres", List.of("film_id", "genre_id"));
+        COLUMNS.put("likes", List.of("film_id", "user_id", "created_at"));
+        COLUMNS.put("friendships", List.of("user_id", "friend_id", "status"));
+    }
+
+    private final Map<String, Writer> writers = new LinkedHashMap<>();
+
+    public CsvDatasetSink(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, List<String>> table : COLUMNS.entrySet()) {
+            Writer writer = Files.newBufferedWriter(directory.resolve(table.getKey() + ".csv"), StandardCharsets.UTF_8);
+            writers.put(table.getKey(), writer);
+            writer.write(String.join(",", table.getValue()));
+            writer.write('\n');
+        }
+    }
+
+    static List<String> columns(String table) {
+        return COLUMNS.get(table);
+    }
+
+    @Override
+    public void user(int id, String email, String login, String name, LocalDate birthday) throws IOException {
+        write("users", id, email, login, name, birthday);
+    }
+
+    @Override
+    public void film(int id, String name, String description, LocalDate releaseDate, int duration, int ratingId)
+            throws IOException {
+        write("films", id, name, description, releaseDate, duration, ratingId);
+    }
+
+    @Override
+    public void filmGenre(int filmId, int genreId) throws IOException {
+        write("film_genres", filmId, genreId);
+    }
+
+    @Override
+    public void like(int filmId, int userId, Instant createdAt) throws IOException {
+        write("likes", filmId, userId, TIMESTAMP.format(JdbcDatasetSink.utc(createdAt)));
+    }
+
+    @Override
+    public void friendship(int userId, int friendId, FriendshipStatus status) throws IOException {
+        write("friendships", userId, friendId, status.name());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Writer writer : writers.values()) {
+            writer.close();
+        }
+    }
+
+    // Генерируемые значения не содержат запятых и кавычек, экранирование не требуется
+    private void write(String table, Object... values) throws IOException {
+        Writer writer = writers.get(table);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(String.valueOf(values[i]));
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// Детерминированный генератор: одинаковые профиль и seed дают побайтно одинаковый набор данных.
+// Запуск: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=ru.yandex.practicum.filmorate.dataset.DatasetGenerator -Dexec.args="SMALL 42 csv target/dataset"
+public class DatasetGenerator {
+    private static final int GENRES = 6;
+    private static final int RATINGS = 5;
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1950, 1, 1);
+    private static final Instant LIKES_UNTIL = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final DatasetProfile profile;
+    private final long seed;
+
+    public DatasetGenerator(DatasetProfile profile, long seed) {
+        this.profile = profile;
+        this.seed = seed;
+    }
+
+    public void generate(DatasetSink sink) throws IOException {
+        generateUsers(sink, random(1));
+        generateFilms(sink, random(2));
+        generateLikes(sink, random(3));
+        generateFriendships(sink, random(4));
+    }
+
+    // Отдельный поток случайных чисел на каждую таблицу: изменение одной не сдвигает остальные
+    private SplittableRandom random(int section) {
+        return new SplittableRandom(seed * 31 + section);
+    }
+
+    private void generateUsers(DatasetSink sink, SplittableRandom random) throws IOException {
+        for (int id = 1; id <= profile.getUsers(); id++) {
+            sink.user(id, "user" + id + "@example.com", "user" + id, "User " + id,
+                    LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20_000)));
+        }
+    }
+
+    private void generateFilms(DatasetSink sink, SplittableRandom random) throws IOException {
+        int days = (int) ChronoUnit.DAYS.between(FIRST_RELEASE, LocalDate.of(2025, 1, 1));
+        int[][] genres = new int[profile.getFilms() + 1][];
+        for (int id = 1; id <= profile.getFilms(); id++) {
+            sink.film(id, "Film " + id, "Description " + id, FIRST_RELEASE.plusDays(random.nextInt(days)),
+                    60 + random.nextInt(120), 1 + random.nextInt(RATINGS));
+            int first = random.nextInt(GENRES);
+            int count = 1 + random.nextInt(3);
+            genres[id] = new int[count];
+            for (int i = 0; i < count; i++) {
+                genres[id][i] = 1 + (first + i) % GENRES;
+            }
+        }
+        for (int id = 1; id <= profile.getFilms(); id++) {
+            for (int genreId : genres[id]) {
+                sink.filmGenre(id, genreId);
+            }
+        }
+    }
+
+    private void generateLikes(DatasetSink sink, SplittableRandom random) throws IOException {
+        ZipfSampler films = new ZipfSampler(profile.getFilms(), DatasetProfile.FILM_POPULARITY_EXPONENT, random);
+        int maxLikes = Math.min(DatasetProfile.MAX_LIKES, profile.getFilms() / 2);
+        long window = ChronoUnit.SECONDS.between(LIKES_UNTIL.minus(365, ChronoUnit.DAYS), LIKES_UNTIL);
+        for (int userId = 1; userId <= profile.getUsers(); userId++) {
+            int degree = ZipfSampler.powerLawDegree(random, DatasetProfile.MIN_LIKES, DatasetProfile.LIKES_ALPHA,
+                    maxLikes);
+            for (int filmId : distinct(films, random, degree, 0, profile.getFilms())) {
+                sink.like(filmId, userId, LIKES_UNTIL.minusSeconds(random.nextLong(window)));
+            }
+        }
+    }
+
+    private void generateFriendships(DatasetSink sink, SplittableRandom random) throws IOException {
+        ZipfSampler users = new ZipfSampler(profile.getUsers(), DatasetProfile.USER_POPULARITY_EXPONENT, random);
+        int maxFriends = Math.min(DatasetProfile.MAX_FRIENDS, profile.getUsers() / 2);
+        for (int userId = 1; userId <= profile.getUsers(); userId++) {
+            int degree = ZipfSampler.powerLawDegree(random, DatasetProfile.MIN_FRIENDS,
+                    DatasetProfile.FRIENDS_ALPHA, maxFriends);
+            for (int friendId : distinct(users, random, degree, userId, profile.getUsers())) {
+                sink.friendship(userId, friendId, random.nextDouble() < DatasetProfile.CONFIRMED_SHARE
+                        ? FriendshipStatus.CONFIRMED : FriendshipStatus.PENDING);
+            }
+        }
+    }
+
+    // Если голова распределения уже выбрана, добор идёт равномерно, чтобы не крутиться в отказах
+    private static int[] distinct(ZipfSampler sampler, SplittableRandom random, int count, int excluded, int size) {
+        Set<Integer> ids = new HashSet<>(count * 2);
+        for (int attempt = 0; ids.size() < count && attempt < count * 20; attempt++) {
+            int id = sampler.sample(random);
+            if (id != excluded) {
+                ids.add(id);
+            }
+        }
+        while (ids.size() < count) {
+            int id = 1 + random.nextInt(size);
+            if (id != excluded) {
+                ids.add(id);
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Использование: DatasetGenerator <TINY|SMALL|MEDIUM|LARGE> <seed> <csv|ndjson> <каталог>");
+            System.exit(1);
+        }
+        DatasetGenerator generator = new DatasetGenerator(DatasetProfile.valueOf(args[0]), Long.parseLong(args[1]));
+        Path directory = Path.of(args[3]);
+        try (DatasetSink sink = "ndjson".equals(args[2])
+                ? new NdjsonDatasetSink(directory) : new CsvDatasetSink(directory)) {
+            generator.generate(sink);
+        }
+    }
+}
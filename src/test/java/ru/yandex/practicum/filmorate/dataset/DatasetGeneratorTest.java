@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generate_WithSameSeed_ShouldProduceIdenticalFixtures() throws Exception {
+        writeCsv(DatasetProfile.TINY, 42, directory.resolve("a"));
+        writeCsv(DatasetProfile.TINY, 42, directory.resolve("b"));
+        writeCsv(DatasetProfile.TINY, 7, directory.resolve("c"));
+
+        for (String file : List.of("users.csv", "films.csv", "film_genres.csv", "likes.csv", "friendships.csv")) {
+            assertThat(Files.mismatch(directory.resolve("a").resolve(file), directory.resolve("b").resolve(file)))
+                    .isEqualTo(-1);
+        }
+        assertThat(Files.mismatch(directory.resolve("a/likes.csv"), directory.resolve("c/likes.csv")))
+                .isNotEqualTo(-1);
+    }
+
+    @Test
+    void generate_ShouldMatchSchemaAndHavePowerLawShape() throws Exception {
+        JdbcTemplate jdbcTemplate = emptyDatabase("dataset-jdbc");
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(jdbcTemplate)) {
+            new DatasetGenerator(DatasetProfile.TINY, 42).generate(sink);
+        }
+
+        assertThat(count(jdbcTemplate, "users")).isEqualTo(DatasetProfile.TINY.getUsers());
+        assertThat(count(jdbcTemplate, "films")).isEqualTo(DatasetProfile.TINY.getFilms());
+        List<Integer> likes = jdbcTemplate.queryForList(
+                "SELECT likes_count FROM films ORDER BY likes_count DESC", Integer.class);
+        assertThat(likes.get(0)).isGreaterThan(10 * likes.get(likes.size() / 2));
+        List<Integer> friends = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM friendships GROUP BY user_id ORDER BY COUNT(*) DESC", Integer.class);
+        assertThat(friends.get(0)).isGreaterThan(10 * friends.get(friends.size() / 2));
+
+        jdbcTemplate.update("INSERT INTO users (email, login, birthday) VALUES ('new@example.com', 'new', '2000-01-01')");
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM users", Integer.class))
+                .isEqualTo(DatasetProfile.TINY.getUsers() + 1);
+    }
+
+    @Test
+    void loadCsv_ShouldProduceSameDataAsBatchedInserts() throws Exception {
+        Path fixtures = directory.resolve("csv");
+        writeCsv(DatasetProfile.TINY, 42, fixtures);
+        JdbcTemplate fromCsv = emptyDatabase("dataset-csv");
+        JdbcDatasetSink.loadCsv(fromCsv, fixtures);
+        JdbcTemplate fromInserts = emptyDatabase("dataset-inserts");
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(fromInserts)) {
+            new DatasetGenerator(DatasetProfile.TINY, 42).generate(sink);
+        }
+
+        for (String table : List.of("users", "films", "film_genres", "likes", "friendships")) {
+            assertThat(count(fromCsv, table)).isEqualTo(count(fromInserts, table));
+        }
+        String top = "SELECT film_id FROM films ORDER BY likes_count DESC, film_id LIMIT 10";
+        assertThat(fromCsv.queryForList(top, Integer.class)).isEqualTo(fromInserts.queryForList(top, Integer.class));
+        String likedAt = "SELECT MAX(created_at) FROM likes";
+        assertThat(fromCsv.queryForObject(likedAt, String.class)).isEqualTo(fromInserts.queryForObject(likedAt, String.class));
+    }
+
+    @Test
+    void ndjsonSink_ShouldWriteOneObjectPerRow() throws Exception {
+        Path fixtures = directory.resolve("ndjson");
+        try (NdjsonDatasetSink sink = new NdjsonDatasetSink(fixtures)) {
+            new DatasetGenerator(DatasetProfile.TINY, 42).generate(sink);
+        }
+
+        List<String> users = Files.readAllLines(fixtures.resolve("users.ndjson"));
+        assertThat(users).hasSize(DatasetProfile.TINY.getUsers());
+        assertThat(users.get(0)).startsWith("{\"id\":1,\"email\":\"user1@example.com\"");
+        assertThat(Files.readAllLines(fixtures.resolve("likes.ndjson")))
+                .allSatisfy(line -> assertThat(line).startsWith("{\"filmId\":").endsWith("Z\"}"));
+    }
+
+    private static void writeCsv(DatasetProfile profile, long seed, Path target) throws Exception {
+        try (CsvDatasetSink sink = new CsvDatasetSink(target)) {
+            new DatasetGenerator(profile, seed).generate(sink);
+        }
+    }
+
+    private static JdbcTemplate emptyDatabase(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "password");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+// Формы данных для нагрузочных прогонов: степени лайков и дружбы распределены по степенному закону,
+// популярность фильмов и пользователей — по Ципфу
+public enum DatasetProfile {
+    TINY(1_000, 500),
+    SMALL(100_000, 20_000),
+    MEDIUM(1_000_000, 100_000),
+    LARGE(3_000_000, 300_000);
+
+    // Параметры распределений общие для всех размеров, чтобы профили отличались только масштабом
+    static final int MIN_LIKES = 2;
+    static final double LIKES_ALPHA = 2.2;
+    static final int MAX_LIKES = 2_000;
+    static final double FILM_POPULARITY_EXPONENT = 1.0;
+    static final int MIN_FRIENDS = 1;
+    static final double FRIENDS_ALPHA = 2.1;
+    static final int MAX_FRIENDS = 1_000;
+    static final double USER_POPULARITY_EXPONENT = 0.8;
+    static final double CONFIRMED_SHARE = 0.8;
+
+    private final int users;
+    private final int films;
+
+    DatasetProfile(int users, int films) {
+        this.users = users;
+        this.films = films;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public int getFilms() {
+        return films;
+    }
+}
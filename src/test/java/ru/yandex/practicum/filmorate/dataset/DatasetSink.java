@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Генератор выдаёт строки по таблицам строго по очереди: users, films, film_genres, likes, friendships
+public interface DatasetSink extends AutoCloseable {
+    void user(int id, String email, String login, String name, LocalDate birthday) throws IOException;
+
+    void film(int id, String name, String description, LocalDate releaseDate, int duration, int ratingId)
+            throws IOException;
+
+    void filmGenre(int filmId, int genreId) throws IOException;
+
+    void like(int filmId, int userId, Instant createdAt) throws IOException;
+
+    void friendship(int userId, int friendId, FriendshipStatus status) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Пишет набор данных пакетными вставками в схему из schema.sql; справочники должны быть уже загружены data.sql
+public class JdbcDatasetSink implements DatasetSink {
+    private static final int BATCH_SIZE = 10_000;
+    private static final String[] TABLES = {"users", "films", "film_genres", "likes", "friendships"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+    private String currentSql;
+
+    public JdbcDatasetSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void user(int id, String email, String login, String name, LocalDate birthday) {
+        add("INSERT INTO users (user_id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)",
+                id, email, login, name, Date.valueOf(birthday));
+    }
+
+    @Override
+    public void film(int id, String name, String description, LocalDate releaseDate, int duration, int ratingId) {
+        add("INSERT INTO films (film_id, name, description, release_date, duration, rating_id) VALUES (?, ?, ?, ?, ?, ?)",
+                id, name, description, Date.valueOf(releaseDate), duration, ratingId);
+    }
+
+    @Override
+    public void filmGenre(int filmId, int genreId) {
+        add("INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)", filmId, genreId);
+    }
+
+    @Override
+    public void like(int filmId, int userId, Instant createdAt) {
+        add("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)",
+                filmId, userId, Timestamp.valueOf(utc(createdAt)));
+    }
+
+    @Override
+    public void friendship(int userId, int friendId, FriendshipStatus status) {
+        add("INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, ?)", userId, friendId, status.name());
+    }
+
+    @Override
+    public void close() {
+        flush();
+        finishLoad(jdbcTemplate);
+    }
+
+    // Массовая загрузка CSV-фикстур, записанных CsvDatasetSink, средствами H2 без разбора строк в Java
+    public static void loadCsv(JdbcTemplate jdbcTemplate, Path directory) {
+        for (String table : TABLES) {
+            String file = directory.resolve(table + ".csv").toAbsolutePath().toString();
+            // CSVREAD принимает имя файла только литералом
+            jdbcTemplate.update("INSERT INTO " + table + " (" + String.join(", ", CsvDatasetSink.columns(table)) +
+                    ") SELECT * FROM CSVREAD('" + file.replace("'", "''") + "', NULL, 'charset=UTF-8')");
+        }
+        finishLoad(jdbcTemplate);
+    }
+
+    static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    // id вставлялись явно: счётчики продолжаются после максимальных, likes_count пересчитывается
+    private static void finishLoad(JdbcTemplate jdbcTemplate) {
+        restartIdentity(jdbcTemplate, "users", "user_id");
+        restartIdentity(jdbcTemplate, "films", "film_id");
+        jdbcTemplate.update("UPDATE films f SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)");
+    }
+
+    private static void restartIdentity(JdbcTemplate jdbcTemplate, String table, String column) {
+        Integer max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table,
+                Integer.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + (max + 1));
+    }
+
+    private void add(String sql, Object... row) {
+        if (!sql.equals(currentSql)) {
+            flush();
+            currentSql = sql;
+        }
+        batch.add(row);
+        if (batch.size() == BATCH_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(currentSql, batch);
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// По файлу на таблицу, одна строка таблицы — один JSON-объект с именами полей как в выгрузке /export
+public class NdjsonDatasetSink implements DatasetSink {
+    private final Map<String, JsonGenerator> generators = new LinkedHashMap<>();
+
+    public NdjsonDatasetSink(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        JsonFactory factory = new JsonFactory();
+        for (String table : new String[]{"users", "films", "film_genres", "likes", "friendships"}) {
+            JsonGenerator generator = factory.createGenerator(Files.newOutputStream(directory.resolve(table + ".ndjson")));
+            generator.setRootValueSeparator(null);
+            generators.put(table, generator);
+        }
+    }
+
+    @Override
+    public void user(int id, String email, String login, String name, LocalDate birthday) throws IOException {
+        JsonGenerator json = start("users");
+        json.writeNumberField("id", id);
+        json.writeStringField("email", email);
+        json.writeStringField("login", login);
+        json.writeStringField("name", name);
+        json.writeStringField("birthday", birthday.toString());
+        end(json);
+    }
+
+    @Override
+    public void film(int id, String name, String description, LocalDate releaseDate, int duration, int ratingId)
+            throws IOException {
+        JsonGenerator json = start("films");
+        json.writeNumberField("id", id);
+        json.writeStringField("name", name);
+        json.writeStringField("description", description);
+        json.writeStringField("releaseDate", releaseDate.toString());
+        json.writeNumberField("duration", duration);
+        json.writeNumberField("mpaId", ratingId);
+        end(json);
+    }
+
+    @Override
+    public void filmGenre(int filmId, int genreId) throws IOException {
+        JsonGenerator json = start("film_genres");
+        json.writeNumberField("filmId", filmId);
+        json.writeNumberField("genreId", genreId);
+        end(json);
+    }
+
+    @Override
+    public void like(int filmId, int userId, Instant createdAt) throws IOException {
+        JsonGenerator json = start("likes");
+        json.writeNumberField("filmId", filmId);
+        json.writeNumberField("userId", userId);
+        json.writeStringField("likedAt", createdAt.toString());
+        end(json);
+    }
+
+    @Override
+    public void friendship(int userId, int friendId, FriendshipStatus status) throws IOException {
+        JsonGenerator json = start("friendships");
+        json.writeNumberField("userId", userId);
+        json.writeNumberField("friendId", friendId);
+        json.writeStringField("status", status.name());
+        end(json);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (JsonGenerator generator : generators.values()) {
+            generator.close();
+        }
+    }
+
+    private JsonGenerator start(String table) throws IOException {
+        JsonGenerator json = generators.get(table);
+        json.writeStartObject();
+        return json;
+    }
+
+    private static void end(JsonGenerator json) throws IOException {
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
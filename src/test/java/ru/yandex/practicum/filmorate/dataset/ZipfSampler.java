@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Выбор id с вероятностью 1 / rank^s; ранги перемешаны, чтобы популярность не совпадала с порядком id
+final class ZipfSampler {
+    private final double[] cdf;
+    private final int[] idsByRank;
+
+    ZipfSampler(int size, double exponent, SplittableRandom random) {
+        cdf = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cdf[rank] /= sum;
+        }
+
+        idsByRank = new int[size];
+        for (int i = 0; i < size; i++) {
+            idsByRank[i] = i + 1;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = idsByRank[i];
+            idsByRank[i] = idsByRank[j];
+            idsByRank[j] = swap;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return idsByRank[Math.min(rank, idsByRank.length - 1)];
+    }
+
+    int idOfRank(int rank) {
+        return idsByRank[rank];
+    }
+
+    // Дискретное распределение Парето: P(d >= x) ~ (min / x)^(alpha - 1)
+    static int powerLawDegree(SplittableRandom random, int min, double alpha, int max) {
+        double degree = min * Math.pow(1 - random.nextDouble(), -1 / (alpha - 1));
+        return (int) Math.min(max, Math.floor(degree));
+    }
+}
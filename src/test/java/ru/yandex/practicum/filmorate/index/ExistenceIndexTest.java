@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ExistenceIndex.class, FilmDbStorage.class, UserDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class, SimpleMeterRegistry.class})
+class ExistenceIndexTest {
+
+    private final ExistenceIndex existenceIndex;
+    private final UserDbStorage userStorage;
+    private final MeterRegistry meterRegistry;
+
+    private User createUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+
+    @Test
+    void rebuild_ShouldServeExistingIdsFromMemory() {
+        int userId = createUser("user1@example.com", "user1").getId();
+        existenceIndex.rebuild();
+        double hits = lookups("user", "hit");
+        double misses = lookups("user", "miss");
+
+        assertThat(existenceIndex.userExists(userId)).isTrue();
+        assertThat(lookups("user", "hit")).isEqualTo(hits + 1);
+        assertThat(lookups("user", "miss")).isEqualTo(misses);
+    }
+
+    @Test
+    void userExists_OnMiss_ShouldFallBackToDatabase() {
+        existenceIndex.rebuild();
+        int userId = createUser("user2@example.com", "user2").getId();
+        double hits = lookups("user", "hit");
+        double misses = lookups("user", "miss");
+
+        assertThat(existenceIndex.userExists(userId)).isTrue();
+        assertThat(existenceIndex.userExists(userId)).isTrue();
+        assertThat(existenceIndex.userExists(9999)).isFalse();
+        assertThat(existenceIndex.userExists(null)).isFalse();
+        assertThat(lookups("user", "miss")).isEqualTo(misses + 2);
+        assertThat(lookups("user", "hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void filmExists_ShouldReflectCreatedFilms() {
+        existenceIndex.rebuild();
+
+        assertThat(existenceIndex.filmExists(42)).isFalse();
+        existenceIndex.onFilmCreated(42);
+        assertThat(existenceIndex.filmExists(42)).isTrue();
+        assertThat(existenceIndex.filmExists(-1)).isFalse();
+    }
+
+    @Test
+    void concurrentIdSet_ShouldGrowBeyondInitialCapacity() {
+        ConcurrentIdSet ids = new ConcurrentIdSet();
+        ids.add(3);
+        ids.add(100_000);
+
+        assertThat(ids.contains(3)).isTrue();
+        assertThat(ids.contains(100_000)).isTrue();
+        assertThat(ids.contains(4)).isFalse();
+        assertThat(ids.contains(1_000_000)).isFalse();
+    }
+
+    private double lookups(String entity, String result) {
+        return meterRegistry.get("filmorate.existence.lookups")
+                .tag("entity", entity).tag("result", result).counter().count();
+    }
+}
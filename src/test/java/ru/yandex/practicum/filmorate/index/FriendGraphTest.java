@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({FriendGraph.class, FriendshipDbStorage.class, UserDbStorage.class, OutboxDbStorage.class})
+class FriendGraphTest {
+
+    private final FriendGraph friendGraph;
+    private final FriendshipDbStorage friendshipStorage;
+    private final UserDbStorage userStorage;
+
+    private int user1;
+    private int user2;
+    private int user3;
+
+    @BeforeEach
+    void setUp() {
+        user1 = createUser("user1@example.com", "user1").getId();
+        user2 = createUser("user2@example.com", "user2").getId();
+        user3 = createUser("user3@example.com", "user3").getId();
+    }
+
+    private User createUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+
+    @Test
+    void rebuild_ShouldLoadEdgesFromStorage() {
+        friendshipStorage.addFriend(user1, user3, FriendshipStatus.CONFIRMED);
+        friendshipStorage.addFriend(user1, user2, FriendshipStatus.PENDING);
+        friendshipStorage.addFriend(user2, user3, FriendshipStatus.PENDING);
+
+        friendGraph.rebuild();
+
+        assertThat(friendGraph.getFriendIds(user1)).containsExactly(user2, user3);
+        assertThat(friendGraph.getFriendIds(user1, FriendshipStatus.CONFIRMED)).containsExactly(user3);
+        assertThat(friendGraph.getIncomingRequestIds(user3)).containsExactly(user2);
+        assertThat(friendGraph.getCommonFriendIds(user1, user2)).containsExactly(user3);
+        assertThat(friendGraph.getStatus(user1, user2)).isEqualTo(FriendshipStatus.PENDING);
+    }
+
+    @Test
+    void incrementalUpdates_ShouldKeepBothDirectionsInSync() {
+        friendGraph.rebuild();
+
+        friendGraph.addEdge(user2, user1, FriendshipStatus.PENDING);
+        friendGraph.addEdge(user3, user1, FriendshipStatus.PENDING);
+        assertThat(friendGraph.getIncomingRequestIds(user1)).containsExactly(user2, user3);
+
+        friendGraph.updateStatus(user2, user1, FriendshipStatus.CONFIRMED);
+        assertThat(friendGraph.getIncomingRequestIds(user1)).containsExactly(user3);
+        assertThat(friendGraph.getFriendIds(user2, FriendshipStatus.CONFIRMED)).containsExactly(user1);
+
+        friendGraph.removeEdge(user3, user1);
+        assertThat(friendGraph.getIncomingRequestIds(user1)).isEmpty();
+        assertThat(friendGraph.getFriendIds(user3)).isEmpty();
+        assertThat(friendGraph.getStatus(user3, user1)).isNull();
+    }
+
+    @Test
+    void updateStatus_WithoutEdge_ShouldBeIgnored() {
+        friendGraph.rebuild();
+
+        friendGraph.updateStatus(user1, user2, FriendshipStatus.CONFIRMED);
+
+        assertThat(friendGraph.getFriendIds(user1)).isEmpty();
+    }
+
+    @Test
+    void suggestions_ShouldRankByMutualFriendsAndRefreshOnEdgeChange() {
+        int user4 = createUser("user4@example.com", "user4").getId();
+        int user5 = createUser("user5@example.com", "user5").getId();
+        friendGraph.rebuild();
+        FriendSuggestions suggestions = new FriendSuggestions(friendGraph, 1000, 50, 100);
+        friendGraph.addEdge(user1, user2, FriendshipStatus.CONFIRMED);
+        friendGraph.addEdge(user1, user3, FriendshipStatus.CONFIRMED);
+        friendGraph.addEdge(user2, user4, FriendshipStatus.CONFIRMED);
+        friendGraph.addEdge(user3, user4, FriendshipStatus.CONFIRMED);
+        friendGraph.addEdge(user3, user5, FriendshipStatus.PENDING);
+        friendGraph.addEdge(user2, user1, FriendshipStatus.CONFIRMED);
+
+        assertThat(suggestions.suggest(user1, 10)).containsExactly(user4, user5);
+        assertThat(suggestions.suggest(user1, 1)).containsExactly(user4);
+
+        friendGraph.addEdge(user1, user4, FriendshipStatus.PENDING);
+        assertThat(suggestions.suggest(user1, 10)).containsExactly(user4, user5);
+        suggestions.onEdgesChanged(user1);
+        assertThat(suggestions.suggest(user1, 10)).containsExactly(user5);
+
+        friendGraph.removeEdge(user3, user5);
+        suggestions.onEdgesChanged(user3);
+        assertThat(suggestions.suggest(user1, 10)).isEmpty();
+    }
+}
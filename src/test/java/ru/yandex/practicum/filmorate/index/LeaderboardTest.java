@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTest {
+
+    @Test
+    void top_ShouldOrderByScoreThenById() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.track(3);
+        leaderboard.track(1);
+        leaderboard.track(2);
+        leaderboard.add(2, 1);
+        leaderboard.add(3, 1);
+
+        assertThat(leaderboard.top(10)).containsExactly(2, 3, 1);
+        assertThat(leaderboard.top(2)).containsExactly(2, 3);
+    }
+
+    @Test
+    void add_ShouldMoveEntryInRanking() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set(1, 5);
+        leaderboard.set(2, 3);
+
+        leaderboard.add(2, 3);
+        leaderboard.add(1, -1);
+
+        assertThat(leaderboard.top(2)).containsExactly(2, 1);
+        assertThat(leaderboard.score(2)).isEqualTo(6);
+        assertThat(leaderboard.size()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_ShouldDropEntry() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set(1, 5);
+        leaderboard.set(2, 3);
+
+        leaderboard.remove(1);
+
+        assertThat(leaderboard.top(10)).containsExactly(2);
+        assertThat(leaderboard.contains(1)).isFalse();
+    }
+
+    @Test
+    void top_NonPositiveCount_ShouldReturnEmpty() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.set(1, 5);
+
+        assertThat(leaderboard.top(0)).isEmpty();
+    }
+
+    @Test
+    void top_UnderConcurrentUpdates_ShouldReturnUniqueIds() throws InterruptedException {
+        Leaderboard leaderboard = new Leaderboard();
+        int films = 50;
+        for (int id = 1; id <= films; id++) {
+            leaderboard.set(id, id);
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch writersStarted = new CountDownLatch(4);
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        for (int w = 0; w < 4; w++) {
+            int seed = w;
+            writers.execute(() -> {
+                writersStarted.countDown();
+                for (int i = seed; running.get(); i++) {
+                    leaderboard.add(i % films + 1, i % 2 == 0 ? 3 : -2);
+                }
+            });
+        }
+        writersStarted.await();
+
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                int[] top = leaderboard.top(films);
+                assertThat(Arrays.stream(top).distinct().count()).isEqualTo(top.length);
+            }
+        } finally {
+            running.set(false);
+            writers.shutdown();
+            writers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertThat(leaderboard.top(films)).hasSize(films);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.RecommendationService;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({LikeMatrix.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
+class LikeMatrixTest {
+
+    private final LikeMatrix likeMatrix;
+    private final LikeDbStorage likeStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+
+    @Test
+    void rebuild_ShouldLoadRowsInBothDirections() {
+        int film1 = createFilm("Film 1").getId();
+        int film2 = createFilm("Film 2").getId();
+        int user1 = createUser("user1").getId();
+        int user2 = createUser("user2").getId();
+        likeStorage.addLike(film2, user1);
+        likeStorage.addLike(film1, user1);
+        likeStorage.addLike(film1, user2);
+
+        likeMatrix.rebuild();
+
+        assertThat(likeMatrix.filmsLikedBy(user1)).containsExactly(film1, film2);
+        assertThat(likeMatrix.usersWhoLiked(film1)).containsExactly(user1, user2);
+        assertThat(likeMatrix.filmsLikedBy(999)).isEmpty();
+    }
+
+    @Test
+    void recommendations_ShouldComeFromUsersWithLargestOverlap() {
+        likeMatrix.rebuild();
+        RecommendationService recommendations = new RecommendationService(likeMatrix, filmStorage, null, 30, 2000);
+        // Пользователь 1 лайкнул 10 и 11; пользователь 2 совпадает по обоим, пользователь 3 — только по 10
+        like(10, 1, 2, 3);
+        like(11, 1, 2);
+        like(20, 2);
+        like(21, 2, 3);
+        like(22, 3);
+
+        assertThat(recommendations.recommendFilmIds(1, 10)).containsExactly(21, 20, 22);
+        assertThat(recommendations.recommendFilmIds(1, 1)).containsExactly(21);
+        assertThat(recommendations.recommendFilmIds(1, 300_000_000)).containsExactly(21, 20, 22);
+
+        likeMatrix.onLikeRemoved(21, 2);
+        likeMatrix.onLikeRemoved(21, 3);
+        assertThat(recommendations.recommendFilmIds(1, 10)).containsExactly(20, 22);
+        assertThat(recommendations.recommendFilmIds(4, 10)).isEmpty();
+    }
+
+    @Test
+    void topK_ShouldKeepBestScoresOrderedById() {
+        TopK top = new TopK(3);
+        top.offer(5, 1);
+        top.offer(4, 7);
+        top.offer(3, 2);
+        top.offer(2, 7);
+        top.offer(1, 0);
+
+        assertThat(top.ids()).containsExactly(2, 4, 3);
+    }
+
+    private void like(int filmId, int... userIds) {
+        for (int userId : userIds) {
+            likeMatrix.onLikeAdded(filmId, userId);
+        }
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+}
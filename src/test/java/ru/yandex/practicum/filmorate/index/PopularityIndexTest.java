@@ -0,0 +1,178 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({PopularityIndex.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class, SimpleMeterRegistry.class})
+class PopularityIndexTest {
+
+    private final PopularityIndex popularityIndex;
+    private final LikeDbStorage likeStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final OutboxDbStorage outboxStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film comedy2000;
+    private Film comedyDrama2000;
+    private Film drama2010;
+
+    @BeforeEach
+    void setUp() {
+        comedy2000 = createFilm("Comedy", 2000, 1);
+        comedyDrama2000 = createFilm("Comedy drama", 2000, 1, 2);
+        drama2010 = createFilm("Drama", 2010, 2);
+        int user1 = createUser("user1").getId();
+        int user2 = createUser("user2").getId();
+        likeStorage.addLike(comedyDrama2000.getId(), user1);
+        likeStorage.addLike(comedyDrama2000.getId(), user2);
+        likeStorage.addLike(drama2010.getId(), user1);
+        popularityIndex.rebuild();
+    }
+
+    @Test
+    void topFilmIds_ShouldFilterByGenreAndYear() {
+        assertThat(popularityIndex.topFilmIds(10, 1, null))
+                .containsExactly(comedyDrama2000.getId(), comedy2000.getId());
+        assertThat(popularityIndex.topFilmIds(10, 2, null))
+                .containsExactly(comedyDrama2000.getId(), drama2010.getId());
+        assertThat(popularityIndex.topFilmIds(10, null, 2010)).containsExactly(drama2010.getId());
+        assertThat(popularityIndex.topFilmIds(10, 2, 2000)).containsExactly(comedyDrama2000.getId());
+        assertThat(popularityIndex.topFilmIds(10, 5, 2000)).isEmpty();
+    }
+
+    @Test
+    void topFilmIds_ShouldFollowLikesAndGenreChanges() {
+        popularityIndex.onLikeAdded(comedy2000.getId());
+        popularityIndex.onLikeAdded(comedy2000.getId());
+        popularityIndex.onLikeAdded(comedy2000.getId());
+        assertThat(popularityIndex.topFilmIds(1, 1, 2000)).containsExactly(comedy2000.getId());
+
+        comedy2000.setGenres(Set.of(new Genre(2, "Драма")));
+        popularityIndex.onFilmUpdated(comedy2000);
+
+        assertThat(popularityIndex.topFilmIds(10, 1, null)).containsExactly(comedyDrama2000.getId());
+        assertThat(popularityIndex.topFilmIds(10, 2, null))
+                .containsExactly(comedy2000.getId(), comedyDrama2000.getId(), drama2010.getId());
+    }
+
+    @Test
+    void onFilmUpdated_UnderConcurrentLikes_ShouldKeepSliceScores() throws InterruptedException {
+        int likesPerWriter = 2_000;
+        int writers = 4;
+        // Соперник набирает столько же лайков: при равенстве счёта выше фильм с меньшим id
+        for (int i = 0; i < likesPerWriter * writers; i++) {
+            popularityIndex.onLikeAdded(comedyDrama2000.getId());
+        }
+        popularityIndex.onLikeAdded(comedy2000.getId());
+        popularityIndex.onLikeAdded(comedy2000.getId());
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        for (int w = 0; w < writers; w++) {
+            executor.execute(() -> {
+                for (int i = 0; i < likesPerWriter; i++) {
+                    popularityIndex.onLikeAdded(comedy2000.getId());
+                }
+            });
+        }
+        for (int i = 0; i < 2_000; i++) {
+            comedy2000.setGenres(i % 2 == 0 ? Set.of(new Genre(1, null), new Genre(2, null)) : Set.of(new Genre(1, null)));
+            popularityIndex.onFilmUpdated(comedy2000);
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(popularityIndex.topFilmIds(1, 1, null)).containsExactly(comedy2000.getId());
+        assertThat(popularityIndex.topFilmIds(1, null, 2000)).containsExactly(comedy2000.getId());
+        assertThat(popularityIndex.topFilmIds(1, 1, 2000)).containsExactly(comedy2000.getId());
+    }
+
+    @Test
+    void rebuild_ShouldKeepLikesAndFilmsArrivingDuringBuild() {
+        int user = createUser("during-build").getId();
+        Film[] created = new Film[1];
+        PopularityIndex[] index = new PopularityIndex[1];
+        // Живые изменения приходят, когда выгрузка для новых структур уже прочитана
+        FilmDbStorage buildingStorage = new FilmDbStorage(jdbcTemplate, referenceDataRegistry, outboxStorage, 100) {
+            @Override
+            public void streamAll(Consumer<Film> consumer) {
+                super.streamAll(consumer);
+                likeStorage.addLike(drama2010.getId(), user);
+                index[0].onLikeAdded(drama2010.getId());
+                created[0] = createFilm("Created during build", 2010, 2);
+                index[0].onFilmCreated(created[0]);
+                likeStorage.addLike(created[0].getId(), user);
+                index[0].onLikeAdded(created[0].getId());
+            }
+        };
+        index[0] = new PopularityIndex(buildingStorage, new SimpleMeterRegistry());
+        index[0].rebuild();
+
+        assertThat(index[0].getLikesCount(drama2010.getId())).isEqualTo(2);
+        assertThat(index[0].getLikesCount(created[0].getId())).isEqualTo(1);
+        assertThat(index[0].topFilmIds(10, null, 2010)).containsExactly(drama2010.getId(), created[0].getId());
+        assertThat(index[0].topFilmIds(10, 2, 2010)).containsExactly(drama2010.getId(), created[0].getId());
+    }
+
+    @Test
+    void findTopByLikes_ShouldMatchIndexForFilters() {
+        assertThat(filmStorage.findTopByLikes(10, 1, null)).extracting(Film::getId)
+                .containsExactly(comedyDrama2000.getId(), comedy2000.getId());
+        assertThat(filmStorage.findTopByLikes(10, 2, 2000)).extracting(Film::getId)
+                .containsExactly(comedyDrama2000.getId());
+        assertThat(filmStorage.findTopByLikes(10, null, 2010)).extracting(Film::getId)
+                .containsExactly(drama2010.getId());
+    }
+
+    private Film createFilm(String name, int year, int... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(year, 6, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        for (int genreId : genreIds) {
+            film.addGenre(new Genre(genreId, null));
+        }
+        return filmStorage.create(film);
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+}
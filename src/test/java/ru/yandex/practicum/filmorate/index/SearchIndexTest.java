@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({SearchIndex.class, PopularityIndex.class, LikeDbStorage.class, FilmDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class, SimpleMeterRegistry.class})
+class SearchIndexTest {
+
+    private final SearchIndex searchIndex;
+    private final PopularityIndex popularityIndex;
+    private final FilmDbStorage filmStorage;
+
+    @Test
+    void tokenize_ShouldNormalizeCaseAndEndings() {
+        assertThat(TextTokenizer.tokenize("Весёлые КОМЕДИИ, comedies!"))
+                .containsExactly("весел", "комед", "comedi");
+        assertThat(TextTokenizer.tokenize("комедия")).containsExactly("комед");
+        assertThat(TextTokenizer.tokenize("a, и")).isEmpty();
+    }
+
+    @Test
+    void rebuild_ShouldFindFilmsByNameAndDescription() {
+        int space = createFilm("Космическая одиссея", "Путешествие к Юпитеру").getId();
+        int comedy = createFilm("Running Man", "Комедия о путешествии").getId();
+        createFilm("Other", null);
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("путешествия", 10)).containsExactly(space, comedy);
+        assertThat(searchIndex.search("комедии одиссея", 10)).containsExactly(space, comedy);
+        assertThat(searchIndex.search("run", 10)).isEmpty();
+        assertThat(searchIndex.search("running", 10)).containsExactly(comedy);
+    }
+
+    @Test
+    void search_ShouldRankByMatchesThenLikes() {
+        searchIndex.rebuild();
+        popularityIndex.rebuild();
+        Film first = createFilm("Драма", "Долгая драма");
+        Film second = createFilm("Драма о море", null);
+        Film third = createFilm("Драма", null);
+        searchIndex.index(first);
+        searchIndex.index(second);
+        searchIndex.index(third);
+        popularityIndex.onFilmCreated(third);
+        popularityIndex.onLikeAdded(third.getId());
+
+        assertThat(searchIndex.search("драма", 10)).containsExactly(third.getId(), first.getId(), second.getId());
+        assertThat(searchIndex.search("драма", Integer.MAX_VALUE)).containsExactly(third.getId(), first.getId(), second.getId());
+        assertThat(searchIndex.search("драма море", 10)).startsWith(second.getId());
+
+        second.setName("Комедия");
+        searchIndex.index(second);
+        assertThat(searchIndex.search("море", 10)).isEmpty();
+        assertThat(searchIndex.search("комедия", 10)).containsExactly(second.getId());
+    }
+
+    private Film createFilm(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+}
@@ -0,0 +1,151 @@
+package ru.yandex.practicum.filmorate.index;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({TrendingIndex.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
+class TrendingIndexTest {
+
+    private final TrendingIndex trendingIndex;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rebuild_ShouldCountOnlyLikesInsideEachWindow() {
+        Instant now = Instant.now();
+        int recent = createFilm("Recent").getId();
+        int steady = createFilm("Steady").getId();
+        int old = createFilm("Old").getId();
+        int user1 = createUser("user1").getId();
+        int user2 = createUser("user2").getId();
+        insertLike(recent, user1, now.minus(Duration.ofMinutes(30)));
+        insertLike(steady, user1, now.minus(Duration.ofHours(3)));
+        insertLike(steady, user2, now.minus(Duration.ofDays(3)));
+        insertLike(old, user1, now.minus(Duration.ofDays(10)));
+
+        trendingIndex.rebuild();
+
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.HOUR, 10)).containsExactly(recent);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.DAY, 10)).containsExactly(recent, steady);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.WEEK, 10)).containsExactly(steady, recent);
+    }
+
+    @Test
+    void likes_ShouldLeaveWindowsAsTimePasses() {
+        trendingIndex.rebuild();
+        Instant start = Instant.now();
+
+        trendingIndex.onLikeChanged(1, start, 1, start);
+        trendingIndex.onLikeChanged(1, start, 1, start);
+        trendingIndex.onLikeChanged(2, start, 1, start);
+
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.HOUR, 10, start)).containsExactly(1, 2);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.HOUR, 10, start.plus(Duration.ofMinutes(61)))).isEmpty();
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.DAY, 10, start.plus(Duration.ofMinutes(61))))
+                .containsExactly(1, 2);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.DAY, 10, start.plus(Duration.ofHours(25)))).isEmpty();
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.WEEK, 10, start.plus(Duration.ofHours(25))))
+                .containsExactly(1, 2);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.WEEK, 10, start.plus(Duration.ofDays(8)))).isEmpty();
+    }
+
+    @Test
+    void removedLike_ShouldBeSubtractedFromBucketOfOriginalLike() {
+        trendingIndex.rebuild();
+        Instant now = Instant.now();
+        Instant likedAt = now.minus(Duration.ofHours(2));
+
+        trendingIndex.onLikeChanged(5, likedAt, 1, now);
+        trendingIndex.onLikeChanged(6, now, 1, now);
+        trendingIndex.onLikeChanged(5, likedAt, -1, now);
+
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.DAY, 10, now)).containsExactly(6);
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.HOUR, 10, now)).containsExactly(6);
+    }
+
+    @Test
+    void concurrentLikes_ShouldLeaveLatestScoreInLeaderboard() throws InterruptedException {
+        trendingIndex.rebuild();
+        Instant now = Instant.now();
+        int threads = 4;
+        int likesPerThread = 500;
+        for (int i = 0; i < threads * likesPerThread - 1; i++) {
+            trendingIndex.onLikeChanged(2, now, 1, now);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        for (int w = 0; w < threads; w++) {
+            writers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < likesPerThread; i++) {
+                    trendingIndex.onLikeChanged(1, now, 1, now);
+                    trendingIndex.topFilmIds(TrendingWindow.HOUR, 1, now);
+                }
+            });
+        }
+        start.countDown();
+        writers.shutdown();
+        assertThat(writers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(trendingIndex.topFilmIds(TrendingWindow.HOUR, 10, now)).containsExactly(1, 2);
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+
+    private void insertLike(int filmId, int userId, Instant likedAt) {
+        jdbcTemplate.update("INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)",
+                filmId, userId, Timestamp.from(likedAt));
+    }
+}
@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.index.SearchIndex;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.index.VersionTracker;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@Transactional
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmServicePopularityTest {
+    // Год, в который другие тесты общего контекста фильмов не создают
+    private static final int YEAR = 1931;
+
+    private final FilmStorage filmStorage;
+    private final LikeStorage likeStorage;
+    private final UserStorage userStorage;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final ExistenceIndex existenceIndex;
+    private final TrendingIndex trendingIndex;
+    private final LikeMatrix likeMatrix;
+    private final SearchIndex searchIndex;
+    private final VersionTracker versionTracker;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    private PopularityIndex popularityIndex;
+    private FilmService filmService;
+    private Film unpopular;
+    private Film popular;
+
+    @BeforeEach
+    void setUp() {
+        // Свой, ещё не построенный индекс: общий бин контекста к этому моменту уже готов
+        popularityIndex = new PopularityIndex(filmStorage, new SimpleMeterRegistry());
+        filmService = new FilmService(filmStorage, likeStorage, referenceDataRegistry, popularityIndex,
+                existenceIndex, trendingIndex, likeMatrix, searchIndex, versionTracker, validator,
+                transactionTemplate, 1000);
+
+        unpopular = createFilm("Unpopular");
+        popular = createFilm("Popular");
+        int user1 = createUser("popularity1").getId();
+        int user2 = createUser("popularity2").getId();
+        likeStorage.addLike(popular.getId(), user1);
+        likeStorage.addLike(popular.getId(), user2);
+        likeStorage.addLike(unpopular.getId(), user1);
+    }
+
+    @Test
+    void getPopularFilms_WhenIndexNotReady_ShouldQueryDatabase() {
+        assertThat(popularityIndex.isReady()).isFalse();
+
+        assertThat(filmService.getPopularFilms(2, null, YEAR)).extracting(Film::getId)
+                .containsExactly(popular.getId(), unpopular.getId());
+    }
+
+    @Test
+    void getPopularFilms_AfterWarmUp_ShouldServeIndexSeededFromLikesCount() {
+        popularityIndex.warmUp();
+
+        assertThat(popularityIndex.isReady()).isTrue();
+        assertThat(popularityIndex.getLikesCount(popular.getId())).isEqualTo(2);
+        assertThat(filmService.getPopularFilms(2, null, YEAR)).extracting(Film::getId)
+                .containsExactly(popular.getId(), unpopular.getId());
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(YEAR, 6, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+}
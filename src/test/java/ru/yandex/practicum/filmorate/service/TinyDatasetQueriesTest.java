@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.dataset.DatasetGenerator;
+import ru.yandex.practicum.filmorate.dataset.DatasetProfile;
+import ru.yandex.practicum.filmorate.dataset.JdbcDatasetSink;
+import ru.yandex.practicum.filmorate.index.ExistenceIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.PopularityIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Запросы сервисов на наборе TINY из генератора сверяются с тем же запросом, посчитанным напрямую по таблицам
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tiny-dataset;DB_CLOSE_DELAY=-1",
+        "spring.test.database.replace=none"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class TinyDatasetQueriesTest {
+    private static final long SEED = 42;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final PopularityIndex popularityIndex;
+    private final FriendGraph friendGraph;
+    private final ExistenceIndex existenceIndex;
+
+    @BeforeAll
+    void seed() throws Exception {
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(jdbcTemplate)) {
+            new DatasetGenerator(DatasetProfile.TINY, SEED).generate(sink);
+        }
+        // Индексы в памяти строились по пустой базе при старте контекста
+        existenceIndex.rebuild();
+        popularityIndex.rebuild();
+        friendGraph.rebuild();
+    }
+
+    @Test
+    void getPopularFilms_ShouldMatchLikesTable() {
+        List<Integer> expected = jdbcTemplate.queryForList("SELECT f.film_id FROM films f " +
+                "LEFT JOIN likes l ON l.film_id = f.film_id " +
+                "GROUP BY f.film_id ORDER BY COUNT(l.user_id) DESC, f.film_id LIMIT 20", Integer.class);
+
+        assertThat(filmService.getPopularFilms(20, null, null)).extracting(Film::getId)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void getPopularFilms_ByGenre_ShouldMatchLikesTable() {
+        int genreId = 1;
+        List<Integer> expected = jdbcTemplate.queryForList("SELECT f.film_id FROM films f " +
+                "JOIN film_genres fg ON fg.film_id = f.film_id AND fg.genre_id = ? " +
+                "LEFT JOIN likes l ON l.film_id = f.film_id " +
+                "GROUP BY f.film_id ORDER BY COUNT(l.user_id) DESC, f.film_id LIMIT 10", Integer.class, genreId);
+
+        assertThat(expected).isNotEmpty();
+        assertThat(filmService.getPopularFilms(10, genreId, null)).extracting(Film::getId)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void getFriends_ShouldMatchFriendshipsTable() {
+        int userId = mostConnectedUser();
+        List<Integer> expected = jdbcTemplate.queryForList(
+                "SELECT friend_id FROM friendships WHERE user_id = ?", Integer.class, userId);
+        List<Integer> confirmed = jdbcTemplate.queryForList(
+                "SELECT friend_id FROM friendships WHERE user_id = ? AND status = 'CONFIRMED'", Integer.class, userId);
+
+        assertThat(userService.getFriends(userId)).extracting(User::getId)
+                .containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(userService.getConfirmedFriends(userId)).extracting(User::getId)
+                .containsExactlyInAnyOrderElementsOf(confirmed);
+    }
+
+    @Test
+    void getCommonFriends_ShouldMatchFriendshipsTable() {
+        List<Integer> hubs = jdbcTemplate.queryForList("SELECT user_id FROM friendships " +
+                "GROUP BY user_id ORDER BY COUNT(*) DESC, user_id LIMIT 2", Integer.class);
+        List<Integer> expected = jdbcTemplate.queryForList("SELECT a.friend_id FROM friendships a " +
+                "JOIN friendships b ON b.friend_id = a.friend_id AND b.user_id = ? " +
+                "WHERE a.user_id = ?", Integer.class, hubs.get(1), hubs.get(0));
+
+        assertThat(expected).isNotEmpty();
+        assertThat(userService.getCommonFriends(hubs.get(0), hubs.get(1))).extracting(User::getId)
+                .containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private int mostConnectedUser() {
+        return jdbcTemplate.queryForObject("SELECT user_id FROM friendships " +
+                "GROUP BY user_id ORDER BY COUNT(*) DESC, user_id LIMIT 1", Integer.class);
+    }
+}
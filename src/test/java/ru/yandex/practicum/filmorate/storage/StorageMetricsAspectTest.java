@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@AutoConfigureObservability(tracing = false)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class StorageMetricsAspectTest {
+
+    private final FilmStorage filmStorage;
+    private final GenreStorage genreStorage;
+    private final MeterRegistry meterRegistry;
+    private final MockMvc mockMvc;
+
+    @Test
+    void storageCalls_ShouldBeTimedByOperationRowsAndOutcome() {
+        long found = count("genre", "getAllGenres", "success", "2-10");
+        long empty = count("film", "findById", "success", "0");
+        long failed = count("film", "findPage", "error", "n/a");
+
+        genreStorage.getAllGenres();
+        filmStorage.findById(99999);
+        assertThatThrownBy(() -> filmStorage.findPage(null, -1)).isInstanceOf(RuntimeException.class);
+
+        assertThat(count("genre", "getAllGenres", "success", "2-10")).isEqualTo(found + 1);
+        assertThat(count("film", "findById", "success", "0")).isEqualTo(empty + 1);
+        assertThat(count("film", "findPage", "error", "n/a")).isEqualTo(failed + 1);
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeQueryTimers() throws Exception {
+        genreStorage.getAllGenres();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("filmorate_db_query_seconds_count{")))
+                .andExpect(content().string(containsString("operation=\"getAllGenres\"")));
+    }
+
+    private long count(String storage, String operation, String outcome, String rows) {
+        Timer timer = meterRegistry.find(StorageMetricsAspect.METRIC)
+                .tags("storage", storage, "operation", operation, "outcome", outcome, "rows", rows)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
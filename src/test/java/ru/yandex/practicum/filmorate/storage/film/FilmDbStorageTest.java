@@ -10,15 +10,22 @@ import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.model.AgeRating;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FilmDbStorage.class})
+@Import({FilmDbStorage.class, OutboxDbStorage.class, ReferenceDataRegistry.class, GenreDbStorage.class,
+        MpaDbStorage.class})
 class FilmDbStorageTest {
 
     private final FilmDbStorage filmStorage;
@@ -117,4 +124,126 @@ class FilmDbStorageTest {
 
         assertThat(foundFilm).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindAllByIds_KeepsRequestedOrder() {
+        Film film1 = filmStorage.create(testFilm);
+
+        Film film2 = new Film();
+        film2.setName("Another Film");
+        film2.setDescription("Another Description");
+        film2.setReleaseDate(LocalDate.of(2010, 1, 1));
+        film2.setDuration(90);
+        film2.setMpa(new AgeRating(1, "G", "G"));
+        filmStorage.create(film2);
+
+        List<Film> films = filmStorage.findAllByIds(List.of(film2.getId(), 999, film1.getId()));
+
+        assertThat(films).extracting(Film::getId).containsExactly(film2.getId(), film1.getId());
+        assertThat(films.get(1).getGenres()).hasSize(2);
+    }
+
+    @Test
+    void testFindAllFilms_LoadsGenresForEachFilm() {
+        Film film1 = filmStorage.create(testFilm);
+
+        Film film2 = new Film();
+        film2.setName("Another Film");
+        film2.setDescription("Another Description");
+        film2.setReleaseDate(LocalDate.of(2010, 1, 1));
+        film2.setDuration(90);
+        film2.setMpa(new AgeRating(1, "G", "G"));
+        film2.addGenre(new Genre(6, "Боевик"));
+        filmStorage.create(film2);
+
+        Collection<Film> films = filmStorage.findAll();
+
+        assertThat(films).filteredOn(film -> film.getId().equals(film1.getId()))
+                .singleElement()
+                .satisfies(film -> assertThat(film.getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(1, 2));
+        assertThat(films).filteredOn(film -> film.getId().equals(film2.getId()))
+                .singleElement()
+                .satisfies(film -> assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(6));
+    }
+
+    @Test
+    void testFindPage_ShouldContinueAfterCursor() {
+        Film film1 = filmStorage.create(testFilm);
+
+        Film film2 = new Film();
+        film2.setName("Another Film");
+        film2.setDescription("Another Description");
+        film2.setReleaseDate(LocalDate.of(2010, 1, 1));
+        film2.setDuration(90);
+        film2.setMpa(new AgeRating(1, "G", "G"));
+        filmStorage.create(film2);
+
+        List<Film> firstPage = filmStorage.findPage(null, 1);
+        List<Film> secondPage = filmStorage.findPage(film1.getId(), 10);
+
+        assertThat(firstPage).extracting(Film::getId).containsExactly(film1.getId());
+        assertThat(firstPage.get(0).getGenres()).hasSize(2);
+        assertThat(secondPage).extracting(Film::getId).containsExactly(film2.getId());
+    }
+
+    @Test
+    void testStreamAll_ShouldLoadGenres() {
+        Film film = filmStorage.create(testFilm);
+
+        List<Film> visited = new ArrayList<>();
+        filmStorage.streamAll(visited::add);
+
+        assertThat(visited).extracting(Film::getId).containsExactly(film.getId());
+        assertThat(visited.get(0).getGenres()).hasSize(2);
+    }
+
+    @Test
+    void testStreamAll_ShouldGroupJoinedGenresPerFilm() {
+        Film withGenres = filmStorage.create(testFilm);
+        Film withoutGenres = new Film();
+        withoutGenres.setName("No Genres");
+        withoutGenres.setDescription("Description");
+        withoutGenres.setReleaseDate(LocalDate.of(2010, 1, 1));
+        withoutGenres.setDuration(90);
+        withoutGenres.setMpa(new AgeRating(1, "G", "G"));
+        filmStorage.create(withoutGenres);
+        Film last = new Film();
+        last.setName("Last");
+        last.setDescription("Description");
+        last.setReleaseDate(LocalDate.of(2011, 1, 1));
+        last.setDuration(80);
+        last.setMpa(new AgeRating(2, "PG", "PG"));
+        last.addGenre(new Genre(6, "Боевик"));
+        filmStorage.create(last);
+
+        List<Film> visited = new ArrayList<>();
+        filmStorage.streamAll(visited::add);
+
+        assertThat(visited).extracting(Film::getId)
+                .containsExactly(withGenres.getId(), withoutGenres.getId(), last.getId());
+        assertThat(visited.get(0).getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(1, 2);
+        assertThat(visited.get(1).getGenres()).isEmpty();
+        assertThat(visited.get(2).getGenres()).extracting(Genre::getId).containsExactly(6);
+        assertThat(visited.get(2).getMpa().getId()).isEqualTo(2);
+    }
+
+    @Test
+    void testCreateAll_AssignsIdsAndSavesGenres() {
+        Film film2 = new Film();
+        film2.setName("Another Film");
+        film2.setDescription("Another Description");
+        film2.setReleaseDate(LocalDate.of(2010, 1, 1));
+        film2.setDuration(90);
+        film2.setMpa(new AgeRating(1, "G", "G"));
+        film2.addGenre(new Genre(6, "Боевик"));
+
+        List<Film> created = filmStorage.createAll(List.of(testFilm, film2));
+
+        assertThat(created).extracting(Film::getId).doesNotContainNull();
+        assertThat(created.get(1).getId()).isGreaterThan(created.get(0).getId());
+        assertThat(filmStorage.findById(created.get(0).getId()))
+                .hasValueSatisfying(film -> assertThat(film.getGenres()).hasSize(2));
+        assertThat(filmStorage.findById(created.get(1).getId()))
+                .hasValueSatisfying(film -> assertThat(film.getName()).isEqualTo("Another Film"));
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 import java.time.LocalDate;
 import java.util.Map;
@@ -18,7 +19,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({FriendshipDbStorage.class, UserDbStorage.class})
+@Import({FriendshipDbStorage.class, OutboxDbStorage.class, UserDbStorage.class})
 class FriendshipDbStorageTest {
 
     private final FriendshipDbStorage friendshipStorage;
@@ -112,4 +113,4 @@ class FriendshipDbStorageTest {
 
         assertThat(status).isNull();
     }
-}
\ No newline at end of file
+}
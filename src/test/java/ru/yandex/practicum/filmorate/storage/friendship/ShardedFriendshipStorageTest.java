@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.shard.JdbcShards;
+import ru.yandex.practicum.filmorate.storage.shard.Resharder;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({JdbcShards.class, ShardedFriendshipStorage.class, OutboxDbStorage.class})
+@TestPropertySource(properties = {
+        "filmorate.sharding.enabled=true",
+        "filmorate.sharding.shards=2",
+        "filmorate.sharding.url-template=jdbc:h2:mem:friendship-shard-%d;DB_CLOSE_DELAY=-1"})
+class ShardedFriendshipStorageTest {
+
+    private final ShardedFriendshipStorage friendshipStorage;
+    private final JdbcShards shards;
+    private final OutboxDbStorage outboxStorage;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).update("DELETE FROM friendships");
+            shards.get(i).update("DELETE FROM outbox");
+        }
+    }
+
+    @Test
+    void testSingleUserOperations_ShouldUseSenderShard() {
+        friendshipStorage.addFriend(1, 2, FriendshipStatus.PENDING);
+        friendshipStorage.addFriend(1, 3, FriendshipStatus.PENDING);
+        friendshipStorage.updateFriendshipStatus(1, 3, FriendshipStatus.CONFIRMED);
+
+        assertThat(shards.get(1).queryForObject("SELECT COUNT(*) FROM friendships", Integer.class)).isEqualTo(2);
+        assertThat(friendshipStorage.getFriendIds(1)).containsExactlyInAnyOrder(2, 3);
+        assertThat(friendshipStorage.getFriendshipStatus(1, 3)).isEqualTo(FriendshipStatus.CONFIRMED);
+
+        friendshipStorage.removeFriend(1, 2);
+        assertThat(friendshipStorage.hasFriend(1, 2)).isFalse();
+        assertThat(friendshipStorage.getFriends(1)).containsOnlyKeys(3);
+    }
+
+    @Test
+    void testMutations_ShouldWriteEventsToSenderShardOutbox() {
+        long mainHead = outboxStorage.getHeadId();
+        friendshipStorage.addFriend(1, 2, FriendshipStatus.PENDING);
+        friendshipStorage.updateFriendshipStatus(1, 2, FriendshipStatus.CONFIRMED);
+        friendshipStorage.removeFriend(1, 2);
+        friendshipStorage.removeFriend(1, 2);
+
+        assertThat(shards.outbox(1).findAfter(0, 10)).extracting(OutboxEvent::type).containsExactly(
+                OutboxEventType.FRIEND_ADDED, OutboxEventType.FRIENDSHIP_STATUS_CHANGED, OutboxEventType.FRIEND_REMOVED);
+        assertThat(shards.outbox(0).findAfter(0, 10)).isEmpty();
+        assertThat(outboxStorage.getHeadId()).isEqualTo(mainHead);
+    }
+
+    @Test
+    void testIncomingRequests_ShouldGatherAllShards() {
+        friendshipStorage.addFriend(1, 5, FriendshipStatus.PENDING);
+        friendshipStorage.addFriend(2, 5, FriendshipStatus.PENDING);
+        friendshipStorage.addFriend(3, 5, FriendshipStatus.CONFIRMED);
+
+        assertThat(friendshipStorage.getIncomingFriendRequests(5)).containsExactlyInAnyOrder(1, 2);
+
+        List<Integer> senders = new ArrayList<>();
+        friendshipStorage.forEachFriendship((userId, friendId, status) -> senders.add(userId));
+        assertThat(senders).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void testResharder_ShouldMoveRowsToNewShardCount() throws SQLException {
+        for (int userId = 1; userId <= 10; userId++) {
+            friendshipStorage.addFriend(userId, userId + 100, FriendshipStatus.PENDING);
+        }
+        String target = "jdbc:h2:mem:friendship-reshard-%d;DB_CLOSE_DELAY=-1";
+        Resharder resharder = new Resharder("sa", "password");
+
+        resharder.reshard("jdbc:h2:mem:friendship-shard-%d;DB_CLOSE_DELAY=-1", 2, target, 3);
+        resharder.reshard("jdbc:h2:mem:friendship-shard-%d;DB_CLOSE_DELAY=-1", 2, target, 3);
+
+        JdbcShards resharded = new JdbcShards(3, target, "sa", "password", 1, "never");
+        try {
+            ShardedFriendshipStorage storage = new ShardedFriendshipStorage(resharded, 100);
+            for (int userId = 1; userId <= 10; userId++) {
+                assertThat(storage.getFriendIds(userId)).containsExactly(userId + 100);
+            }
+            assertThat(resharded.get(1).queryForObject("SELECT COUNT(*) FROM friendships", Integer.class))
+                    .isEqualTo(4);
+        } finally {
+            resharded.close();
+        }
+        assertThatThrownBy(() -> resharder.reshard(target, 3, target, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -7,24 +7,32 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import ru.yandex.practicum.filmorate.model.AgeRating;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
 @AutoConfigureTestDatabase
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
-@Import({LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class})
+@Import({LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
 class LikeDbStorageTest {
 
     private final LikeDbStorage likeStorage;
     private final FilmDbStorage filmStorage;
     private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
 
     private Film testFilm;
     private User testUser1;
@@ -79,6 +87,17 @@ class LikeDbStorageTest {
         assertThat(likesCount).isEqualTo(0);
     }
 
+    @Test
+    void testAddAndRemoveLike_ReportWhetherRowChanged() {
+        assertThat(likeStorage.addLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.addLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isEqualTo(1);
+
+        assertThat(likeStorage.removeLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.removeLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isZero();
+    }
+
     @Test
     void testHasLike_False() {
         boolean hasLike = likeStorage.hasLike(testFilm.getId(), testUser1.getId());
@@ -120,4 +139,34 @@ class LikeDbStorageTest {
 
         assertThat(likedUserIds).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testLikesCount_FollowsAddAndRemove() {
+        Film otherFilm = createFilm("Other Film", "Other Description", new AgeRating(1, "G", "G"));
+        likeStorage.addLike(otherFilm.getId(), testUser1.getId());
+        likeStorage.addLike(otherFilm.getId(), testUser2.getId());
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+        likeStorage.removeLike(testFilm.getId(), testUser2.getId());
+
+        assertThat(storedLikesCount(otherFilm.getId())).isEqualTo(2);
+        assertThat(storedLikesCount(testFilm.getId())).isEqualTo(1);
+
+        List<Film> top = filmStorage.findTopByLikes(2);
+        assertThat(top).extracting(Film::getId).containsExactly(otherFilm.getId(), testFilm.getId());
+    }
+
+    @Test
+    void testRepairLikesCounts() {
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+        jdbcTemplate.update("UPDATE films SET likes_count = 42 WHERE film_id = ?", testFilm.getId());
+
+        int repaired = likeStorage.repairLikesCounts(1);
+
+        assertThat(repaired).isEqualTo(1);
+        assertThat(storedLikesCount(testFilm.getId())).isEqualTo(1);
+    }
+
+    private int storedLikesCount(Integer filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+}
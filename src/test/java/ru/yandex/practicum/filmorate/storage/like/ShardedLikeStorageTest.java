@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.StorageMetricsAspect;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDispatcher;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEvent;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxEventType;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxSubscriber;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.shard.JdbcShards;
+import ru.yandex.practicum.filmorate.storage.shard.ShardingWriteBehindCheck;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({JdbcShards.class, ShardedLikeStorage.class, FilmDbStorage.class, OutboxDbStorage.class,
+        ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class, StorageMetricsAspect.class,
+        SimpleMeterRegistry.class})
+@ImportAutoConfiguration(AopAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "filmorate.sharding.enabled=true",
+        "filmorate.sharding.shards=3",
+        "filmorate.sharding.url-template=jdbc:h2:mem:like-shard-%d;DB_CLOSE_DELAY=-1"})
+class ShardedLikeStorageTest {
+
+    private final ShardedLikeStorage likeStorage;
+    private final JdbcShards shards;
+    private final FilmDbStorage filmStorage;
+    private final OutboxDbStorage outboxStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final List<Integer> filmIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).update("DELETE FROM likes");
+            shards.get(i).update("DELETE FROM outbox");
+            shards.get(i).update("DELETE FROM outbox_offsets");
+        }
+        for (int i = 0; i < 3; i++) {
+            filmIds.add(createFilm("Film " + i).getId());
+        }
+    }
+
+    private Film createFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+
+    @Test
+    void testAddLike_ShouldRouteByFilmAndMaintainCounter() {
+        int filmId = filmIds.get(0);
+        likeStorage.addLike(filmId, 7);
+        likeStorage.addLike(filmId, 8);
+
+        Integer inOwnShard = shards.forKey(filmId)
+                .queryForObject("SELECT COUNT(*) FROM likes WHERE film_id = ?", Integer.class, filmId);
+        assertThat(inOwnShard).isEqualTo(2);
+        assertThat(likeStorage.hasLike(filmId, 7)).isTrue();
+        assertThat(likeStorage.getLikedUserIds(filmId)).containsExactlyInAnyOrder(7, 8);
+        assertThat(likeStorage.getLikeTime(filmId, 8)).isNotNull();
+        assertThat(likesCountColumn(filmId)).isEqualTo(2);
+
+        likeStorage.removeLike(filmId, 7);
+        likeStorage.removeLike(filmId, 7);
+
+        assertThat(likeStorage.getLikesCount(filmId)).isEqualTo(1);
+        assertThat(likesCountColumn(filmId)).isEqualTo(1);
+    }
+
+    @Test
+    void testLikeEvents_ShouldBeWrittenToShardAndDispatchedFromIt() {
+        int filmId = filmIds.get(1);
+        int shard = shards.shardOf(filmId);
+        long mainHead = outboxStorage.getHeadId();
+        likeStorage.addLike(filmId, 7);
+        likeStorage.removeLike(filmId, 7);
+        likeStorage.removeLike(filmId, 7);
+
+        assertThat(outboxStorage.getHeadId()).isEqualTo(mainHead);
+        assertThat(shards.outbox(shard).findAfter(0, 10)).extracting(OutboxEvent::type)
+                .containsExactly(OutboxEventType.LIKE_ADDED, OutboxEventType.LIKE_REMOVED);
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        OutboxSubscriber subscriber = new OutboxSubscriber() {
+            @Override
+            public String getName() {
+                return "shard-likes";
+            }
+
+            @Override
+            public void onEvent(OutboxEvent event) {
+                delivered.add(event);
+            }
+        };
+        outboxStorage.saveOffset(subscriber.getName(), mainHead);
+        List<OutboxStorage> shardOutboxes = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            shardOutboxes.add(shards.outbox(i));
+        }
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxStorage, shardOutboxes, List.of(subscriber),
+                new SimpleMeterRegistry(), 100, 0, 60_000, 60_000);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+        assertThat(delivered).extracting(OutboxEvent::entityId).containsOnly(filmId);
+        assertThat(dispatcher.getOffsets()).containsEntry("shard-likes@shard-" + shard, 2L);
+        assertThat(dispatcher.dispatch()).isZero();
+    }
+
+    @Test
+    void testStorageCalls_ShouldBeTimedLikeUnshardedStorage() {
+        likeStorage.addLike(filmIds.get(0), 7);
+        likeStorage.getLikedUserIds(filmIds.get(0));
+
+        assertThat(meterRegistry.find("filmorate.db.query")
+                .tags("storage", "like", "operation", "addLike", "outcome", "success").timer())
+                .isNotNull();
+        assertThat(meterRegistry.find("filmorate.db.query")
+                .tags("storage", "like", "operation", "getLikedUserIds", "rows", "1").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testCrossShardReads_ShouldGatherAllShards() {
+        filmIds.forEach(filmId -> likeStorage.addLike(filmId, 7));
+        likeStorage.addLike(filmIds.get(1), 8);
+
+        // Шарды сливаются в общий порядок по film_id, user_id, как при выгрузке из одной БД
+        List<String> streamed = new ArrayList<>();
+        likeStorage.forEachLike((filmId, userId, likedAt) -> streamed.add(filmId + ":" + userId));
+        assertThat(streamed).containsExactly(filmIds.get(0) + ":7", filmIds.get(1) + ":7", filmIds.get(1) + ":8",
+                filmIds.get(2) + ":7");
+    }
+
+    @Test
+    void testWriteBehindWithSharding_ShouldFailOnStartup() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(ShardingWriteBehindCheck.class)
+                .withPropertyValues("filmorate.sharding.enabled=true", "filmorate.likes.write-behind.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasFailed();
+                    assertThat(context.getStartupFailure()).hasMessageContaining("filmorate.likes.write-behind.enabled");
+                });
+    }
+
+    @Test
+    void testRepairLikesCounts_ShouldUseShardCounts() {
+        int filmId = filmIds.get(2);
+        likeStorage.addLike(filmId, 7);
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE film_id = ?", filmId);
+
+        assertThat(likeStorage.repairLikesCounts(1)).isEqualTo(1);
+        assertThat(likesCountColumn(filmId)).isEqualTo(1);
+    }
+
+    @Test
+    void testRepairLikesCounts_ShouldWalkRangesAcrossShards() {
+        filmIds.forEach(filmId -> likeStorage.addLike(filmId, 7));
+        likeStorage.addLike(filmIds.get(0), 8);
+        filmIds.forEach(filmId -> jdbcTemplate.update("UPDATE films SET likes_count = 0 WHERE film_id = ?", filmId));
+
+        assertThat(likeStorage.repairLikesCounts(2)).isGreaterThanOrEqualTo(filmIds.size());
+        assertThat(likesCountColumn(filmIds.get(0))).isEqualTo(2);
+        assertThat(likesCountColumn(filmIds.get(1))).isEqualTo(1);
+        assertThat(likesCountColumn(filmIds.get(2))).isEqualTo(1);
+        assertThat(likeStorage.repairLikesCounts(2)).isZero();
+    }
+
+    private int likesCountColumn(int filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+}
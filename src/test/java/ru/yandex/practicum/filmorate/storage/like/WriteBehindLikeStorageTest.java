@@ -0,0 +1,146 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.outbox.OutboxDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.Instant;
+import java.time.LocalDate;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@TestPropertySource(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.capacity=2",
+        "filmorate.likes.write-behind.flush-threshold=100",
+        "filmorate.likes.write-behind.flush-interval-ms=3600000"
+})
+@Import({WriteBehindLikeStorage.class, LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class,
+        OutboxDbStorage.class, ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
+class WriteBehindLikeStorageTest {
+
+    private final WriteBehindLikeStorage likeStorage;
+    private final LikeDbStorage likeDbStorage;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+
+    private Film testFilm;
+    private User testUser1;
+    private User testUser2;
+    private User testUser3;
+
+    @BeforeEach
+    void setUp() {
+        likeStorage.flush();
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("Test Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        testFilm = filmStorage.create(film);
+        testUser1 = createUser("user1@example.com", "user1");
+        testUser2 = createUser("user2@example.com", "user2");
+        testUser3 = createUser("user3@example.com", "user3");
+    }
+
+    private User createUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+
+    @Test
+    void addLike_ShouldBeVisibleBeforeFlush() {
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+
+        assertThat(likeDbStorage.hasLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.hasLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.getLikeTime(testFilm.getId(), testUser1.getId())).isNotNull();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isEqualTo(1);
+        assertThat(likeStorage.getLikedUserIds(testFilm.getId())).containsExactly(testUser1.getId());
+
+        likeStorage.flush();
+
+        assertThat(likeDbStorage.hasLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isEqualTo(1);
+        assertThat(likeStorage.getPendingCount()).isZero();
+    }
+
+    @Test
+    void repeatedChanges_ShouldBeReportedAsNoOp() {
+        assertThat(likeStorage.addLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.addLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isEqualTo(1);
+
+        likeStorage.flush();
+
+        assertThat(likeStorage.addLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.removeLike(testFilm.getId(), testUser1.getId())).isTrue();
+        assertThat(likeStorage.removeLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isZero();
+    }
+
+    @Test
+    void bufferedLikeTime_ShouldBeKeptUntilFlush() {
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+        Instant likedAt = likeStorage.getLikeTime(testFilm.getId(), testUser1.getId());
+
+        assertThat(likeStorage.getLikeTime(testFilm.getId(), testUser1.getId())).isEqualTo(likedAt);
+
+        likeStorage.flush();
+
+        assertThat(likeDbStorage.getLikeTime(testFilm.getId(), testUser1.getId())).isEqualTo(likedAt);
+    }
+
+    @Test
+    void likeFollowedByUnlike_ShouldCancelOut() {
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+        likeStorage.removeLike(testFilm.getId(), testUser1.getId());
+
+        assertThat(likeStorage.getPendingCount()).isZero();
+        assertThat(likeStorage.hasLike(testFilm.getId(), testUser1.getId())).isFalse();
+        assertThat(likeStorage.getLikeTime(testFilm.getId(), testUser1.getId())).isNull();
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isZero();
+    }
+
+    @Test
+    void removeLike_ShouldBeFlushedAsDelete() {
+        likeDbStorage.addLike(testFilm.getId(), testUser1.getId());
+
+        likeStorage.removeLike(testFilm.getId(), testUser1.getId());
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isZero();
+        likeStorage.flush();
+
+        assertThat(likeDbStorage.getLikesCount(testFilm.getId())).isZero();
+    }
+
+    @Test
+    void fullQueue_ShouldBeFlushedByCaller() {
+        likeStorage.addLike(testFilm.getId(), testUser1.getId());
+        likeStorage.addLike(testFilm.getId(), testUser2.getId());
+        likeStorage.addLike(testFilm.getId(), testUser3.getId());
+
+        assertThat(likeDbStorage.getLikesCount(testFilm.getId())).isEqualTo(2);
+        assertThat(likeStorage.getPendingCount()).isEqualTo(1);
+        assertThat(likeStorage.getLikesCount(testFilm.getId())).isEqualTo(3);
+    }
+}
@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.storage.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.AgeRating;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import ru.yandex.practicum.filmorate.storage.reference.ReferenceDataRegistry;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({OutboxDbStorage.class, FilmDbStorage.class, LikeDbStorage.class, FriendshipDbStorage.class,
+        UserDbStorage.class, ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
+class OutboxDispatcherTest {
+
+    private final OutboxDbStorage outboxStorage;
+    private final FilmDbStorage filmStorage;
+    private final LikeDbStorage likeStorage;
+    private final FriendshipDbStorage friendshipStorage;
+    private final UserDbStorage userStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Test
+    void testStorageMutations_ShouldAppendTypedEvents() {
+        RecordingSubscriber subscriber = new RecordingSubscriber("recording");
+        OutboxDispatcher dispatcher = dispatcher(subscriber, 0);
+        Film film = createFilm();
+        int user1 = createUser("outbox1").getId();
+        int user2 = createUser("outbox2").getId();
+
+        likeStorage.addLike(film.getId(), user1);
+        likeStorage.removeLike(film.getId(), user1);
+        likeStorage.removeLike(film.getId(), user1);
+        friendshipStorage.addFriend(user1, user2, FriendshipStatus.PENDING);
+        friendshipStorage.updateFriendshipStatus(user1, user2, FriendshipStatus.CONFIRMED);
+        filmStorage.update(film);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(6);
+        assertThat(subscriber.events).extracting(OutboxEvent::type).containsExactly(
+                OutboxEventType.FILM_CREATED, OutboxEventType.LIKE_ADDED, OutboxEventType.LIKE_REMOVED,
+                OutboxEventType.FRIEND_ADDED, OutboxEventType.FRIENDSHIP_STATUS_CHANGED, OutboxEventType.FILM_UPDATED);
+        OutboxEvent statusChanged = subscriber.events.get(4);
+        assertThat(statusChanged.entityId()).isEqualTo(user1);
+        assertThat(statusChanged.relatedId()).isEqualTo(user2);
+        assertThat(statusChanged.payload()).isEqualTo("CONFIRMED");
+        assertThat(dispatcher.dispatch()).isZero();
+    }
+
+    @Test
+    void testFailingSubscriber_ShouldRetryFromLastDeliveredEvent() {
+        RecordingSubscriber subscriber = new RecordingSubscriber("flaky");
+        OutboxDispatcher dispatcher = dispatcher(subscriber, 0);
+        int first = createFilm().getId();
+        createFilm();
+        createFilm();
+        subscriber.failOnEntity = first + 1;
+
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        subscriber.failOnEntity = null;
+        assertThat(dispatcher.dispatch()).isEqualTo(2);
+        assertThat(subscriber.events).extracting(OutboxEvent::entityId)
+                .containsExactly(first, first + 1, first + 2);
+    }
+
+    @Test
+    void testReplay_ShouldRedeliverFromOffset() {
+        RecordingSubscriber subscriber = new RecordingSubscriber("replayed");
+        OutboxDispatcher dispatcher = dispatcher(subscriber, 0);
+        createFilm();
+        createFilm();
+        dispatcher.dispatch();
+        long secondEventId = subscriber.events.get(1).id();
+
+        dispatcher.replay("replayed", secondEventId);
+
+        assertThat(dispatcher.getOffsets()).containsEntry("replayed", secondEventId - 1);
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(subscriber.events).extracting(OutboxEvent::id).endsWith(secondEventId, secondEventId);
+        assertThatThrownBy(() -> dispatcher.replay("unknown", 1)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void testGap_ShouldHoldBackLaterEventsUntilTimeout() {
+        RecordingSubscriber subscriber = new RecordingSubscriber("gap");
+        OutboxDispatcher dispatcher = dispatcher(subscriber, 60_000);
+        createFilm();
+        createFilm();
+        createFilm();
+        long head = outboxStorage.getHeadId();
+        outboxStorage.saveOffset("gap", head - 3);
+        jdbcTemplate.update("DELETE FROM outbox WHERE event_id = ?", head - 1);
+
+        assertThat(dispatcher.dispatch()).isEqualTo(1);
+        assertThat(dispatcher(subscriber, 0).dispatch()).isEqualTo(1);
+        assertThat(subscriber.events).extracting(OutboxEvent::id).containsExactly(head - 2, head);
+    }
+
+    @Test
+    void testLateCommit_ShouldDeliverEventSkippedAfterGapTimeout() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber("late");
+        OutboxDispatcher dispatcher = dispatcher(subscriber, 0);
+        CountDownLatch appended = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        TransactionTemplate slowTransaction = new TransactionTemplate(transactionManager);
+        slowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Медленная транзакция первой получает id события, но фиксируется после более поздней
+        Thread slow = new Thread(() -> slowTransaction.executeWithoutResult(status -> {
+            outboxStorage.append(OutboxEvent.of(OutboxEventType.FILM_UPDATED, -1, null, null));
+            appended.countDown();
+            await(commit);
+        }));
+        slow.start();
+        int film;
+        try {
+            assertThat(appended.await(10, TimeUnit.SECONDS)).isTrue();
+            film = createFilm().getId();
+
+            assertThat(dispatcher.dispatch()).isEqualTo(1);
+            assertThat(subscriber.events).extracting(OutboxEvent::entityId).containsExactly(film);
+        } finally {
+            commit.countDown();
+            slow.join();
+        }
+
+        try {
+            assertThat(dispatcher.dispatch()).isEqualTo(1);
+            assertThat(subscriber.events).extracting(OutboxEvent::entityId).containsExactly(film, -1);
+            assertThat(dispatcher.dispatch()).isZero();
+        } finally {
+            // Событие медленной транзакции зафиксировано и не откатится вместе с тестом
+            slowTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.update("DELETE FROM outbox WHERE entity_id = -1"));
+        }
+    }
+
+    // Откаченные транзакции соседних тестов оставляют пропуски в нумерации: подписчик стартует с головы,
+    // а ожидание пропусков отключается нулевым gapTimeoutMs везде, кроме проверки самих пропусков
+    private OutboxDispatcher dispatcher(RecordingSubscriber subscriber, long gapTimeoutMs) {
+        if (!subscriber.started) {
+            outboxStorage.saveOffset(subscriber.getName(), outboxStorage.getHeadId());
+            subscriber.started = true;
+        }
+        return new OutboxDispatcher(outboxStorage, List.of(), List.of(subscriber), new SimpleMeterRegistry(),
+                100, gapTimeoutMs, 60_000, 60_000);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Film createFilm() {
+        Film film = new Film();
+        film.setName("Outbox Film");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new AgeRating(1, "G", "G"));
+        return filmStorage.create(film);
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return userStorage.create(user);
+    }
+
+    private static final class RecordingSubscriber implements OutboxSubscriber {
+        private final String name;
+        private final List<OutboxEvent> events = new ArrayList<>();
+        private Integer failOnEntity;
+        private boolean started;
+
+        RecordingSubscriber(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void onEvent(OutboxEvent event) {
+            if (failOnEntity != null && failOnEntity == event.entityId()) {
+                throw new IllegalStateException("Сбой подписчика");
+            }
+            events.add(event);
+        }
+    }
+}
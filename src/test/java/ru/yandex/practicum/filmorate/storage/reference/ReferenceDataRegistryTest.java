@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.storage.reference;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Import({ReferenceDataRegistry.class, GenreDbStorage.class, MpaDbStorage.class})
+class ReferenceDataRegistryTest {
+
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        referenceDataRegistry.reload();
+    }
+
+    @Test
+    void testLoadsReferenceTablesAsSharedInstances() {
+        assertThat(referenceDataRegistry.getAllGenres()).hasSize(6);
+        assertThat(referenceDataRegistry.getAllMpa()).hasSize(5);
+        assertThat(referenceDataRegistry.getGenre(2).getName()).isEqualTo("Драма");
+        assertThat(referenceDataRegistry.getMpa(3).getCode()).isEqualTo("PG-13");
+        assertThat(referenceDataRegistry.getGenre(2)).isSameAs(referenceDataRegistry.getGenre(2));
+        assertThat(referenceDataRegistry.getGenre(999)).isNull();
+        assertThat(referenceDataRegistry.getMpa(-1)).isNull();
+    }
+
+    @Test
+    void testResolveReloadsOnMiss() {
+        jdbcTemplate.update("INSERT INTO genres (genre_id, name) VALUES (7, 'Фантастика')");
+
+        assertThat(referenceDataRegistry.getGenre(7)).isNull();
+        assertThat(referenceDataRegistry.resolveGenre(7).getName()).isEqualTo("Фантастика");
+        assertThat(referenceDataRegistry.getAllGenres()).hasSize(7);
+    }
+}
@@ -9,8 +9,11 @@ import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import ru.yandex.practicum.filmorate.model.User;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @JdbcTest
@@ -102,4 +105,67 @@ class UserDbStorageTest {
 
         assertThat(foundUser).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFindPage_ShouldContinueAfterCursor() {
+        User user1 = userStorage.create(testUser);
+        User user2 = userStorage.create(createUser("user2@example.com", "user2login"));
+        User user3 = userStorage.create(createUser("user3@example.com", "user3login"));
+
+        List<User> firstPage = userStorage.findPage(null, 2);
+        List<User> secondPage = userStorage.findPage(firstPage.get(1).getId(), 2);
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(user1.getId(), user2.getId());
+        assertThat(secondPage).extracting(User::getId).containsExactly(user3.getId());
+    }
+
+    @Test
+    void testStreamAll_ShouldVisitUsersInIdOrder() {
+        User user1 = userStorage.create(testUser);
+        User user2 = userStorage.create(createUser("user2@example.com", "user2login"));
+
+        List<Integer> visited = new ArrayList<>();
+        userStorage.streamAll(user -> visited.add(user.getId()));
+
+        assertThat(visited).containsExactly(user1.getId(), user2.getId());
+    }
+
+    @Test
+    void testCreateAll_AssignsIds() {
+        List<User> created = userStorage.createAll(List.of(testUser, createUser("user2@example.com", "user2login")));
+
+        assertThat(created).extracting(User::getId).doesNotContainNull();
+        assertThat(userStorage.findById(created.get(1).getId()))
+                .hasValueSatisfying(user -> assertThat(user.getLogin()).isEqualTo("user2login"));
+    }
+
+    @Test
+    void testFindExistingEmailsAndLogins() {
+        userStorage.create(testUser);
+
+        Set<String> emails = userStorage.findExistingEmails(List.of("test@example.com", "free@example.com"));
+        Set<String> logins = userStorage.findExistingLogins(List.of("testlogin", "freelogin"));
+
+        assertThat(emails).containsExactly("test@example.com");
+        assertThat(logins).containsExactly("testlogin");
+    }
+
+    @Test
+    void testFindAllByIds_KeepsRequestedOrder() {
+        User user1 = userStorage.create(testUser);
+        User user2 = userStorage.create(createUser("user2@example.com", "user2login"));
+
+        List<User> users = userStorage.findAllByIds(List.of(user2.getId(), 999, user1.getId()));
+
+        assertThat(users).extracting(User::getId).containsExactly(user2.getId(), user1.getId());
+    }
+
+    private User createUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+        return user;
+    }
+}